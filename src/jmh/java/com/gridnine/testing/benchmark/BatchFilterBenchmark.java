@@ -0,0 +1,67 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch of different requests: one shared scan against a separate pass per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class BatchFilterBenchmark {
+
+    @Param({"4", "32"})
+    public int requests;
+
+    private final FlightFilterService flightFilterService = new FlightFilterServiceImpl();
+    private List<FlightFilterRequest> filterRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filterRequests = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            FlightFilterRequest filterRequest = new FlightFilterRequest();
+            filterRequest.setAfterDeparture(FlightDataset.NOW.plusHours(i));
+            filterRequest.setMaxGroundTime(Duration.ofMinutes(30L + 15L * (i % 8)));
+            filterRequest.setMaxStops(i % 3 + 1);
+            filterRequests.add(filterRequest);
+        }
+    }
+
+    @Benchmark
+    public List<List<Flight>> sharedScan(FlightDataset dataset) {
+        return flightFilterService.applyFilters(dataset.flights, filterRequests);
+    }
+
+    @Benchmark
+    public List<List<Flight>> scanPerRequest(FlightDataset dataset) {
+        List<List<Flight>> results = new ArrayList<>(filterRequests.size());
+        for (FlightFilterRequest filterRequest : filterRequests) {
+            results.add(flightFilterService.applyFilter(dataset.flights, filterRequest));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,75 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import com.gridnine.testing.store.ColumnKernel;
+import com.gridnine.testing.store.ColumnKernels;
+import com.gridnine.testing.store.FlightStoreQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broad query over the stop count, ground time and departure window: the Stream-based list path
+ * against the index-driven store path and the scalar and vector column scans.
+ * The vector scan uses the Vector API kernel only when built with {@code -Pbenchmark,vector},
+ * otherwise it measures the scalar fallback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ColumnScanBenchmark {
+
+    private final FlightFilterService flightFilterService = new FlightFilterServiceImpl();
+    private final ColumnKernel scalar = ColumnKernels.scalar();
+    private final ColumnKernel vector = ColumnKernels.best();
+    private FlightFilterRequest filterRequest;
+    private FlightStoreQuery query;
+
+    @Setup(Level.Trial)
+    public void setUp(FlightDataset dataset) {
+        filterRequest = new FlightFilterRequest();
+        filterRequest.setAfterDeparture(FlightDataset.NOW.minusDays(1));
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setMinStops(3);
+        query = FlightStoreQuery.of(filterRequest);
+        dataset.store.scan(query, scalar);
+    }
+
+    @Benchmark
+    public List<Flight> streamList(FlightDataset dataset) {
+        return flightFilterService.applyFilter(dataset.flights, filterRequest);
+    }
+
+    @Benchmark
+    public int[] storeSelect(FlightDataset dataset) {
+        return dataset.store.select(query);
+    }
+
+    @Benchmark
+    public int[] scalarScan(FlightDataset dataset) {
+        return dataset.store.scan(query, scalar);
+    }
+
+    @Benchmark
+    public int[] vectorScan(FlightDataset dataset) {
+        return dataset.store.scan(query, vector);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class FixedFilterBenchmark {
+
+    private final FlightFilterService flightFilterService = new FlightFilterServiceImpl();
+
+    @Benchmark
+    public List<Flight> filterFromCurrentTime(FlightDataset dataset) {
+        return flightFilterService.filterFromCurrentTime(dataset.flights);
+    }
+
+    @Benchmark
+    public List<Flight> filterArrivalBeforeDeparture(FlightDataset dataset) {
+        return flightFilterService.filterArrivalBeforeDeparture(dataset.flights);
+    }
+
+    @Benchmark
+    public List<Flight> filterMoreThanTwoHoursGroundTime(FlightDataset dataset) {
+        return flightFilterService.filterMoreThanTwoHoursGroundTime(dataset.flights);
+    }
+}
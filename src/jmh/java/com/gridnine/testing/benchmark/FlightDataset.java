@@ -0,0 +1,37 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.store.FlightStore;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Deterministic schedule shared by all benchmark threads, built once per trial.
+ */
+@State(Scope.Benchmark)
+public class FlightDataset {
+
+    static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    public List<Flight> flights;
+    public FlightStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ScheduleConfig config = ScheduleConfig.builder(42, size).start(NOW.minusDays(3)).build();
+        flights = FlightBuilder.createFlights(config);
+        store = FlightStore.of(flights);
+    }
+}
@@ -0,0 +1,95 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.SortDirection;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class FlightFilterBenchmark {
+
+    public enum QueryCase {
+        DEPARTURE_WINDOW,
+        GROUND_TIME,
+        STOPS_AND_AIR,
+        ALL_CRITERIA
+    }
+
+    private static final FlightPageRequest TOP_50 =
+            FlightPageRequest.of(FlightSortKey.FLIGHT_TIME, SortDirection.ASCENDING, 50);
+
+    @Param
+    public QueryCase query;
+
+    private final FlightFilterService flightFilterService = new FlightFilterServiceImpl();
+    private FlightFilterRequest filterRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filterRequest = new FlightFilterRequest();
+        switch (query) {
+            case DEPARTURE_WINDOW -> {
+                filterRequest.setAfterDeparture(FlightDataset.NOW.plusDays(1));
+                filterRequest.setBeforeDeparture(FlightDataset.NOW.plusDays(2));
+            }
+            case GROUND_TIME -> filterRequest.setMaxGroundTime(Duration.ofHours(3));
+            case STOPS_AND_AIR -> {
+                filterRequest.setMaxStops(1);
+                filterRequest.setMinAirDuration(Duration.ofHours(8));
+            }
+            case ALL_CRITERIA -> {
+                filterRequest.setAfterDeparture(FlightDataset.NOW);
+                filterRequest.setBeforeArrival(FlightDataset.NOW.plusDays(20));
+                filterRequest.setMinGroundTime(Duration.ofHours(6));
+                filterRequest.setMaxAirDuration(Duration.ofHours(2));
+                filterRequest.setMaxFlightDuration(Duration.ofHours(4));
+                filterRequest.setMinStops(3);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Flight> applyFilter(FlightDataset dataset) {
+        return flightFilterService.applyFilter(dataset.flights, filterRequest);
+    }
+
+    @Benchmark
+    public FlightPage applyFilterTop50(FlightDataset dataset) {
+        return flightFilterService.applyFilter(dataset.flights, filterRequest, TOP_50);
+    }
+
+    @Benchmark
+    public FlightPage applyFilterStoreTop50(FlightDataset dataset) {
+        return flightFilterService.applyFilter(dataset.store, filterRequest, TOP_50);
+    }
+
+    @Benchmark
+    public List<Flight> applyFilterStore(FlightDataset dataset) {
+        return flightFilterService.applyFilter(dataset.store, filterRequest);
+    }
+}
@@ -0,0 +1,72 @@
+package com.gridnine.testing.benchmark;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.output.FlightBinaryWriter;
+import com.gridnine.testing.output.FlightJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dumping the first 100K flights: {@code toString} of every flight against the JSON and binary writers
+ * into one reused buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ResultWriterBenchmark {
+
+    private static final int RESULT_SIZE = 100_000;
+
+    private List<Flight> result;
+    private ByteBuffer buffer;
+    private FlightJsonWriter json;
+    private FlightBinaryWriter binary;
+
+    @Setup(Level.Trial)
+    public void setUp(FlightDataset dataset) {
+        result = dataset.flights.subList(0, Math.min(RESULT_SIZE, dataset.flights.size()));
+        buffer = ByteBuffer.allocateDirect(64 << 20);
+        json = new FlightJsonWriter(buffer);
+        binary = new FlightBinaryWriter(buffer);
+    }
+
+    @Benchmark
+    public long flightToString() {
+        long length = 0;
+        for (Flight flight : result) {
+            length += flight.toString().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int jsonWriter() throws IOException {
+        buffer.clear();
+        json.beginArray().writeAll(result).endArray();
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int binaryWriter() throws IOException {
+        buffer.clear();
+        binary.writeAll(result).end();
+        return buffer.position();
+    }
+}
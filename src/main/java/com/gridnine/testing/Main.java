@@ -2,26 +2,43 @@ package com.gridnine.testing;
 
 import com.gridnine.testing.dto.FlightFilterRequest;
 import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.metrics.FilterMetrics;
 import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.server.FlightQueryServer;
 import com.gridnine.testing.service.FlightFilterService;
 import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import com.gridnine.testing.util.DateTimeParser;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 public class Main {
 
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        FilterMetrics metrics = new FilterMetrics("main");
+        metrics.register(ManagementFactory.getPlatformMBeanServer());
+        FlightFilterService flightFilterService = new FlightFilterServiceImpl(null, Integer.MAX_VALUE,
+                Clock.systemDefaultZone(), metrics);
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args, flightFilterService);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         FlightFilterRequest filterRequest = new FlightFilterRequest();
-        FlightFilterService flightFilterService = new FlightFilterServiceImpl();
+        List<Flight> flights = FlightBuilder.createFlights();
 
         while (true) {
             System.out.println("Выберите действие:");
@@ -61,19 +78,19 @@ public class Main {
                 case 11 -> filterRequest.setMaxFlightDuration(getDurationInput(scanner, "больше чем"));
                 case 12 -> filterRequest.setMinFlightDuration(getDurationInput(scanner, "меньше чем"));
                 case 0 -> {
-                    List<Flight> filteredFlights = flightFilterService.applyFilter(FlightBuilder.createFlights(), filterRequest);
+                    List<Flight> filteredFlights = flightFilterService.applyFilter(flights, filterRequest);
                     System.out.println("Результаты фильтрации: " + filteredFlights);
                 }
                 case 13 -> {
-                    List<Flight> filteredFlights = flightFilterService.filterFromCurrentTime(FlightBuilder.createFlights());
+                    List<Flight> filteredFlights = flightFilterService.filterFromCurrentTime(flights);
                     System.out.println("Результаты фильтрации: " + filteredFlights);
                 }
                 case 14 -> {
-                    List<Flight> filteredFlights = flightFilterService.filterArrivalBeforeDeparture(FlightBuilder.createFlights());
+                    List<Flight> filteredFlights = flightFilterService.filterArrivalBeforeDeparture(flights);
                     System.out.println("Результаты фильтрации: " + filteredFlights);
                 }
                 case 15 -> {
-                    List<Flight> filteredFlights = flightFilterService.filterMoreThanTwoHoursGroundTime(FlightBuilder.createFlights());
+                    List<Flight> filteredFlights = flightFilterService.filterMoreThanTwoHoursGroundTime(flights);
                     System.out.println("Результаты фильтрации: " + filteredFlights);
                 }
                 case 16 -> {
@@ -89,6 +106,22 @@ public class Main {
         }
     }
 
+    /**
+     * Server mode: {@code --server [port] [threads] [flights]}. Without a flight count the test set of
+     * {@link FlightBuilder#createFlights()} is served, otherwise a generated schedule of that size.
+     */
+    private static void runServer(String[] args, FlightFilterService flightFilterService) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 2;
+        List<Flight> flights = args.length > 3
+                ? FlightBuilder.createFlights(ScheduleConfig.builder(42, Integer.parseInt(args[3])).build())
+                : FlightBuilder.createFlights();
+        FlightQueryServer server = FlightQueryServer.start(new InetSocketAddress(port), 0,
+                Executors.newFixedThreadPool(threads), flightFilterService, flights);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.format("Сервер запущен на порту %d: %d перелётов, %d потоков%n", server.port(), flights.size(), threads);
+    }
+
     private static LocalDateTime getDateTimeInput(Scanner scanner, String prompt) {
         System.out.print("Введите дату и время " + prompt + " (в формате yyyy-MM-ddTHH:mm): ");
         return parseDateTime(scanner.next());
@@ -105,9 +138,8 @@ public class Main {
     }
 
     private static LocalDateTime parseDateTime(String input) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
         try {
-            return LocalDateTime.parse(input, formatter);
+            return DateTimeParser.parse(input);
         } catch (DateTimeParseException e) {
             logger.warning("Ошибка при преобразовании: " + e.getMessage());
         } catch (Exception e) {
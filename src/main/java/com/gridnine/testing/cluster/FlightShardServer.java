@@ -0,0 +1,247 @@
+package com.gridnine.testing.cluster;
+
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.FlightStats;
+import com.gridnine.testing.model.SegmentPool;
+import com.gridnine.testing.util.CompiledFlightQuery;
+import com.gridnine.testing.util.FlightAggregator;
+import com.gridnine.testing.util.TopKHeap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Worker process holding one partition of the flights and answering {@link ShardProtocol} requests
+ * on a loopback socket. Every connection is served by its own thread; a {@code LOAD} replaces the
+ * partition atomically, so requests in flight finish on the previous one.
+ * <p>
+ * Run as {@code java -cp ... com.gridnine.testing.cluster.FlightShardServer [port]}: the bound port is
+ * printed as the first line of standard output, and the process exits when standard input is closed.
+ */
+public final class FlightShardServer implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(FlightShardServer.class.getName());
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int INITIAL_MATCHES = 64;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private volatile Partition partition = new Partition(List.of(), new int[0]);
+
+    private FlightShardServer(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "flight-shard-" + serverSocket.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Binds to the loopback interface, {@code 0} picks a free port, and starts accepting connections.
+     */
+    public static FlightShardServer start(int port) throws IOException {
+        FlightShardServer server = new FlightShardServer(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()));
+        server.connections.execute(server::accept);
+        return server;
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (FlightShardServer server = start(args.length > 0 ? Integer.parseInt(args[0]) : 0)) {
+            System.out.println(server.port());
+            System.out.flush();
+            InputStream stdin = System.in;
+            while (stdin.read() >= 0) {
+                // the parent keeps standard input open while the shard is needed
+            }
+        }
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int size() {
+        return partition.flights.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                logger.warning("Ошибка приёма соединения: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES))) {
+            while (true) {
+                byte opcode;
+                try {
+                    opcode = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    handle(opcode, in, out);
+                } catch (RuntimeException e) {
+                    out.writeByte(ShardProtocol.ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            logger.warning("Соединение с координатором прервано: " + e.getMessage());
+        }
+    }
+
+    private void handle(byte opcode, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (opcode) {
+            case ShardProtocol.LOAD -> load(in, out);
+            case ShardProtocol.FILTER -> filter(in, out);
+            case ShardProtocol.PAGE -> page(in, out);
+            case ShardProtocol.AGGREGATE -> aggregate(in, out);
+            default -> {
+                out.writeByte(ShardProtocol.ERROR);
+                out.writeUTF("unknown opcode " + opcode);
+                throw new IOException("unknown opcode " + opcode);
+            }
+        }
+    }
+
+    private void load(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        List<Flight> flights = new ArrayList<>(count);
+        int[] positions = new int[count];
+        SegmentPool pool = new SegmentPool();
+        for (int i = 0; i < count; i++) {
+            positions[i] = in.readInt();
+            flights.add(ShardProtocol.readFlight(in, pool));
+        }
+        partition = new Partition(flights, positions);
+        SegmentPool.Report report = pool.report();
+        logger.fine(String.format("Загружено %d перелётов: %d уникальных маршрутов, %d уникальных сегментов, сэкономлено ~%d КБ",
+                count, report.uniqueItineraries(), report.uniqueSegments(), report.bytesSaved() / 1024));
+        out.writeByte(ShardProtocol.OK);
+    }
+
+    private void filter(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        CompiledFlightQuery[] queries = new CompiledFlightQuery[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = CompiledFlightQuery.compile(ShardProtocol.readCriteria(in));
+        }
+        Partition current = partition;
+        int[][] matches = new int[count][INITIAL_MATCHES];
+        int[] sizes = new int[count];
+        for (int i = 0; i < current.flights.size(); i++) {
+            FlightStats stats = current.flights.get(i).getStats();
+            for (int query = 0; query < count; query++) {
+                if (queries[query].test(stats)) {
+                    if (sizes[query] == matches[query].length) {
+                        matches[query] = Arrays.copyOf(matches[query], sizes[query] * 2);
+                    }
+                    matches[query][sizes[query]++] = current.positions[i];
+                }
+            }
+        }
+
+        out.writeByte(ShardProtocol.OK);
+        for (int query = 0; query < count; query++) {
+            out.writeInt(sizes[query]);
+            for (int i = 0; i < sizes[query]; i++) {
+                out.writeInt(matches[query][i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the shard's first {@code window} matches after the cursor; the coordinator applies the offset.
+     * Positions of a partition ascend with its local indexes, so local indexes break ties in the same order.
+     */
+    private void page(DataInputStream in, DataOutputStream out) throws IOException {
+        CompiledFlightQuery query = CompiledFlightQuery.compile(ShardProtocol.readCriteria(in));
+        FlightPageRequest pageRequest = ShardProtocol.readPageRequest(in);
+        Partition current = partition;
+        FlightSortKey sortKey = pageRequest.sortKey();
+        boolean descending = pageRequest.descending();
+        TopKHeap heap = new TopKHeap(Math.max(1, Math.min(pageRequest.limit(), current.flights.size())), descending);
+        for (int i = 0; i < current.flights.size(); i++) {
+            FlightStats stats = current.flights.get(i).getStats();
+            if (!query.test(stats)) {
+                continue;
+            }
+            long key = sortKey.key(stats);
+            int nano = sortKey.nano(stats);
+            if (pageRequest.after() == null
+                    || TopKHeap.isAfter(key, nano, current.positions[i], pageRequest.after(), descending)) {
+                heap.offer(key, nano, i);
+            }
+        }
+
+        int[] ordered = heap.drainSorted();
+        out.writeByte(ShardProtocol.OK);
+        out.writeInt(ordered.length);
+        for (int i : ordered) {
+            FlightStats stats = current.flights.get(i).getStats();
+            out.writeInt(current.positions[i]);
+            out.writeLong(sortKey.key(stats));
+            out.writeInt(sortKey.nano(stats));
+        }
+    }
+
+    private void aggregate(DataInputStream in, DataOutputStream out) throws IOException {
+        FlightFilterCriteria criteria = ShardProtocol.readCriteria(in);
+        List<HistogramSpec> histograms = ShardProtocol.readHistograms(in);
+        CompiledFlightQuery query = CompiledFlightQuery.compile(criteria);
+        FlightAggregator aggregator = new FlightAggregator(histograms);
+        for (Flight flight : partition.flights) {
+            FlightStats stats = flight.getStats();
+            if (query.test(stats)) {
+                aggregator.accept(stats);
+            }
+        }
+        out.writeByte(ShardProtocol.OK);
+        ShardProtocol.writeAggregates(out, aggregator.result());
+    }
+
+    /**
+     * Flights of the shard with their positions in the coordinator's list, in ascending position order.
+     */
+    private record Partition(List<Flight> flights, int[] positions) {
+    }
+}
@@ -0,0 +1,515 @@
+package com.gridnine.testing.cluster;
+
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.FlightCursor;
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.FlightStats;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.store.PartitionedFlightStore;
+import com.gridnine.testing.util.FlightAggregator;
+import com.gridnine.testing.util.TopKHeap;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Coordinator that spreads a flight list over {@link FlightShardServer} processes and answers list queries
+ * on it by sending the request to every shard and merging the partial results: positions are merged back into
+ * list order, pages are merged by sort key before offset and limit are applied, and aggregates are combined.
+ * Shards whose departure range cannot match a departure criterion are not asked.
+ * <p>
+ * Only the list passed to the last {@link #load} is served remotely, recognized by identity; other lists,
+ * stores, streams and profiling go to the local delegate. Calls to one shard are serialized on its connection.
+ * Queries on the served list hold a read lock and {@link #load} the write lock, so no query reaches shards
+ * of two different loads.
+ * <p>
+ * This spreads the filtering work, not the memory: shards reply with list positions and the coordinator
+ * builds results from the served list, which stays on its heap as the identity every list query is
+ * addressed by, while every shard holds a copy of its part on top. A schedule that does not fit on
+ * one heap is not served by this class.
+ */
+public class ScatterGatherFlightFilterService implements FlightFilterService, AutoCloseable {
+
+    /**
+     * How flights are assigned to shards.
+     */
+    public enum Partitioning {
+        /**
+         * By a hash of the list position: even load, every shard is asked.
+         */
+        HASH,
+        /**
+         * By ranges of the earliest departure with equal flight counts: departure criteria skip shards.
+         */
+        TIME_RANGE
+    }
+
+    private final FlightFilterService local;
+    private final List<ShardConnection> shards;
+    private final ExecutorService scatter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Layout layout;
+
+    private ScatterGatherFlightFilterService(FlightFilterService local, List<ShardConnection> shards) {
+        this.local = local;
+        this.shards = shards;
+        this.scatter = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "flight-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ScatterGatherFlightFilterService connect(List<InetSocketAddress> addresses,
+                                                           FlightFilterService local) throws IOException {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        List<ShardConnection> shards = new ArrayList<>(addresses.size());
+        try {
+            for (InetSocketAddress address : addresses) {
+                shards.add(new ShardConnection(address));
+            }
+        } catch (IOException e) {
+            for (ShardConnection shard : shards) {
+                shard.close();
+            }
+            throw e;
+        }
+        return new ScatterGatherFlightFilterService(local, List.copyOf(shards));
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Partitions the flights, replaces the content of every shard and makes {@code flights} the served list.
+     */
+    public void load(List<Flight> flights, Partitioning partitioning) {
+        lock.writeLock().lock();
+        try {
+            replace(flights, partitioning);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(List<Flight> flights, Partitioning partitioning) {
+        int[] assignment = partitioning == Partitioning.HASH ? hashAssignment(flights.size()) : rangeAssignment(flights);
+        int[][] positions = new int[shards.size()][];
+        int[] sizes = new int[shards.size()];
+        for (int shard : assignment) {
+            sizes[shard]++;
+        }
+        long[] minDeparture = new long[shards.size()];
+        long[] maxDeparture = new long[shards.size()];
+        Arrays.fill(minDeparture, Long.MAX_VALUE);
+        Arrays.fill(maxDeparture, Long.MIN_VALUE);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            positions[shard] = new int[sizes[shard]];
+            sizes[shard] = 0;
+        }
+        for (int position = 0; position < assignment.length; position++) {
+            int shard = assignment[position];
+            positions[shard][sizes[shard]++] = position;
+            long departure = flights.get(position).getStats().earliestDepartureSecond();
+            minDeparture[shard] = Math.min(minDeparture[shard], departure);
+            maxDeparture[shard] = Math.max(maxDeparture[shard], departure);
+        }
+
+        layout = null;
+        boolean[] all = new boolean[shards.size()];
+        Arrays.fill(all, true);
+        scatter(all, shard -> shards.get(shard).call(ShardProtocol.LOAD, out -> {
+            out.writeInt(positions[shard].length);
+            for (int position : positions[shard]) {
+                out.writeInt(position);
+                ShardProtocol.writeFlight(out, flights.get(position));
+            }
+        }, in -> null));
+        layout = new Layout(flights, minDeparture, maxDeparture);
+    }
+
+    @Override
+    public List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest) {
+        lock.readLock().lock();
+        try {
+            Layout current = served(flights);
+            if (current != null) {
+                FlightFilterCriteria criteria = FlightFilterCriteria.of(filterRequest);
+                List<int[][]> partials = scatter(current.targets(List.of(criteria)), shard -> shards.get(shard)
+                        .call(ShardProtocol.FILTER, out -> {
+                            out.writeInt(1);
+                            ShardProtocol.writeCriteria(out, criteria);
+                        }, in -> readPositions(in, 1)));
+                return merge(flights, partials, 0);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return local.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public List<List<Flight>> applyFilters(List<Flight> flights, List<FlightFilterRequest> filterRequests) {
+        lock.readLock().lock();
+        try {
+            Layout current = served(flights);
+            if (current != null && !filterRequests.isEmpty()) {
+                List<FlightFilterCriteria> criteria = filterRequests.stream().map(FlightFilterCriteria::of).toList();
+                List<int[][]> partials = scatter(current.targets(criteria), shard -> shards.get(shard)
+                        .call(ShardProtocol.FILTER, out -> {
+                            out.writeInt(criteria.size());
+                            for (FlightFilterCriteria c : criteria) {
+                                ShardProtocol.writeCriteria(out, c);
+                            }
+                        }, in -> readPositions(in, criteria.size())));
+                List<List<Flight>> results = new ArrayList<>(criteria.size());
+                for (int request = 0; request < criteria.size(); request++) {
+                    results.add(merge(flights, partials, request));
+                }
+                return results;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return local.applyFilters(flights, filterRequests);
+    }
+
+    @Override
+    public FlightPage applyFilter(List<Flight> flights, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        List<long[]> partials;
+        lock.readLock().lock();
+        try {
+            Layout current = served(flights);
+            if (current == null) {
+                partials = null;
+            } else {
+                FlightFilterCriteria criteria = FlightFilterCriteria.of(filterRequest);
+                partials = scatter(current.targets(List.of(criteria)), shard -> shards.get(shard)
+                        .call(ShardProtocol.PAGE, out -> {
+                            ShardProtocol.writeCriteria(out, criteria);
+                            ShardProtocol.writePageRequest(out, pageRequest);
+                        }, ScatterGatherFlightFilterService::readPageEntries));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (partials == null) {
+            return local.applyFilter(flights, filterRequest, pageRequest);
+        }
+
+        FlightSortKey sortKey = pageRequest.sortKey();
+        TopKHeap heap = new TopKHeap((int) Math.max(1, Math.min(pageRequest.window(), flights.size())),
+                pageRequest.descending());
+        for (long[] entries : partials) {
+            for (int i = 0; i < entries.length; i += 3) {
+                heap.offer(entries[i + 1], (int) entries[i + 2], (int) entries[i]);
+            }
+        }
+        int[] ordered = heap.drainSorted();
+        List<Flight> page = new ArrayList<>();
+        for (int i = pageRequest.offset(); i < ordered.length; i++) {
+            page.add(flights.get(ordered[i]));
+        }
+        FlightCursor next = null;
+        if (page.size() == pageRequest.limit()) {
+            int last = ordered[ordered.length - 1];
+            FlightStats stats = flights.get(last).getStats();
+            next = new FlightCursor(sortKey.key(stats), sortKey.nano(stats), last);
+        }
+        return new FlightPage(page, next);
+    }
+
+    @Override
+    public FlightAggregates aggregate(List<Flight> flights, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        List<FlightAggregates> partials;
+        lock.readLock().lock();
+        try {
+            Layout current = served(flights);
+            if (current == null) {
+                partials = null;
+            } else {
+                FlightFilterCriteria criteria = FlightFilterCriteria.of(filterRequest);
+                partials = scatter(current.targets(List.of(criteria)), shard -> shards.get(shard)
+                        .call(ShardProtocol.AGGREGATE, out -> {
+                            ShardProtocol.writeCriteria(out, criteria);
+                            ShardProtocol.writeHistograms(out, histograms);
+                        }, in -> ShardProtocol.readAggregates(in, histograms)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (partials == null) {
+            return local.aggregate(flights, filterRequest, histograms);
+        }
+        FlightAggregates result = new FlightAggregator(histograms).result();
+        for (FlightAggregates partial : partials) {
+            result = combine(result, partial);
+        }
+        return result;
+    }
+
+    @Override
+    public FlightPage applyFilter(FlightStore store, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        return local.applyFilter(store, filterRequest, pageRequest);
+    }
+
+    @Override
+    public FlightAggregates aggregate(FlightStore store, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        return local.aggregate(store, filterRequest, histograms);
+    }
+
+    @Override
+    public List<Flight> applyFilter(FlightStore store, FlightFilterRequest filterRequest) {
+        return local.applyFilter(store, filterRequest);
+    }
+
+    @Override
+    public FilterProfile profile(List<Flight> flights, FlightFilterRequest filterRequest) {
+        return local.profile(flights, filterRequest);
+    }
+
+    @Override
+    public Stream<Flight> applyFilter(Stream<Flight> flights, FlightFilterRequest filterRequest) {
+        return local.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Iterator<Flight> applyFilter(Iterator<Flight> flights, FlightFilterRequest filterRequest) {
+        return local.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Flow.Publisher<Flight> applyFilter(Flow.Publisher<Flight> flights, FlightFilterRequest filterRequest) {
+        return local.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(List<Flight> flights) {
+        return local.filterFromCurrentTime(flights);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(PartitionedFlightStore store) {
+        return local.filterFromCurrentTime(store);
+    }
+
+    @Override
+    public List<Flight> filterArrivalBeforeDeparture(List<Flight> flights) {
+        return local.filterArrivalBeforeDeparture(flights);
+    }
+
+    @Override
+    public List<Flight> filterMoreThanTwoHoursGroundTime(List<Flight> flights) {
+        return local.filterMoreThanTwoHoursGroundTime(flights);
+    }
+
+    @Override
+    public void resetFilters(FlightFilterRequest filterRequest) {
+        local.resetFilters(filterRequest);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scatter.shutdownNow();
+        IOException failure = null;
+        for (ShardConnection shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private Layout served(List<Flight> flights) {
+        Layout current = layout;
+        return current != null && current.flights == flights ? current : null;
+    }
+
+    private int[] hashAssignment(int size) {
+        int[] assignment = new int[size];
+        for (int position = 0; position < size; position++) {
+            long hash = position * 0x9E3779B97F4A7C15L;
+            assignment[position] = (int) Long.remainderUnsigned(hash ^ (hash >>> 32), shards.size());
+        }
+        return assignment;
+    }
+
+    private int[] rangeAssignment(List<Flight> flights) {
+        Integer[] byDeparture = new Integer[flights.size()];
+        for (int i = 0; i < byDeparture.length; i++) {
+            byDeparture[i] = i;
+        }
+        Arrays.sort(byDeparture, (a, b) -> Long.compare(flights.get(a).getStats().earliestDepartureSecond(),
+                flights.get(b).getStats().earliestDepartureSecond()));
+        int[] assignment = new int[flights.size()];
+        for (int rank = 0; rank < byDeparture.length; rank++) {
+            assignment[byDeparture[rank]] = (int) ((long) rank * shards.size() / byDeparture.length);
+        }
+        return assignment;
+    }
+
+    /**
+     * Sends one call per selected shard concurrently and returns the replies in shard order.
+     */
+    private <T> List<T> scatter(boolean[] targets, ShardCall<T> call) {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            if (targets[shard]) {
+                futures.add(scatter.submit(() -> call.call(target)));
+            }
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for shards", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+                throw new IllegalStateException("shard call failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static int[][] readPositions(DataInput in, int requests) throws IOException {
+        int[][] positions = new int[requests][];
+        for (int request = 0; request < requests; request++) {
+            positions[request] = new int[in.readInt()];
+            for (int i = 0; i < positions[request].length; i++) {
+                positions[request][i] = in.readInt();
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Reads {@code (position, key, nano)} triples flattened into one array.
+     */
+    private static long[] readPageEntries(DataInput in) throws IOException {
+        long[] entries = new long[in.readInt() * 3];
+        for (int i = 0; i < entries.length; i += 3) {
+            entries[i] = in.readInt();
+            entries[i + 1] = in.readLong();
+            entries[i + 2] = in.readInt();
+        }
+        return entries;
+    }
+
+    private static List<Flight> merge(List<Flight> flights, List<int[][]> partials, int request) {
+        int total = 0;
+        for (int[][] partial : partials) {
+            total += partial[request].length;
+        }
+        int[] positions = new int[total];
+        int offset = 0;
+        for (int[][] partial : partials) {
+            System.arraycopy(partial[request], 0, positions, offset, partial[request].length);
+            offset += partial[request].length;
+        }
+        Arrays.sort(positions);
+        List<Flight> result = new ArrayList<>(total);
+        for (int position : positions) {
+            result.add(flights.get(position));
+        }
+        return result;
+    }
+
+    private static FlightAggregates combine(FlightAggregates left, FlightAggregates right) {
+        List<FlightAggregates.Histogram> histograms = new ArrayList<>(left.histograms().size());
+        for (int i = 0; i < left.histograms().size(); i++) {
+            List<Long> leftCounts = left.histograms().get(i).counts();
+            List<Long> rightCounts = right.histograms().get(i).counts();
+            List<Long> counts = new ArrayList<>(leftCounts.size());
+            for (int bucket = 0; bucket < leftCounts.size(); bucket++) {
+                counts.add(leftCounts.get(bucket) + rightCounts.get(bucket));
+            }
+            histograms.add(new FlightAggregates.Histogram(left.histograms().get(i).spec(), List.copyOf(counts)));
+        }
+        return new FlightAggregates(left.count() + right.count(),
+                combine(left.airMinutes(), right.airMinutes()),
+                combine(left.groundMinutes(), right.groundMinutes()),
+                combine(left.flightMinutes(), right.flightMinutes()),
+                List.copyOf(histograms));
+    }
+
+    private static FlightAggregates.Summary combine(FlightAggregates.Summary left, FlightAggregates.Summary right) {
+        if (left.count() == 0) {
+            return right;
+        }
+        if (right.count() == 0) {
+            return left;
+        }
+        return new FlightAggregates.Summary(Math.min(left.min(), right.min()), Math.max(left.max(), right.max()),
+                left.sum() + right.sum(), left.count() + right.count());
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<T> {
+        T call(int shard) throws IOException;
+    }
+
+    /**
+     * Served list with the range of earliest departures, in epoch seconds, held by every shard.
+     */
+    private record Layout(List<Flight> flights, long[] minDeparture, long[] maxDeparture) {
+
+        /**
+         * Shards that may hold a match of at least one of the criteria. A flight matches {@code afterDeparture}
+         * only when its earliest departure is later and {@code beforeDeparture} only when it is earlier.
+         */
+        boolean[] targets(List<FlightFilterCriteria> criteria) {
+            boolean[] targets = new boolean[minDeparture.length];
+            for (int shard = 0; shard < targets.length; shard++) {
+                for (FlightFilterCriteria c : criteria) {
+                    boolean skip = minDeparture[shard] > maxDeparture[shard]
+                            || (c.afterDeparture() != null
+                            && maxDeparture[shard] < c.afterDeparture().toEpochSecond(ZoneOffset.UTC))
+                            || (c.beforeDeparture() != null
+                            && minDeparture[shard] > c.beforeDeparture().toEpochSecond(ZoneOffset.UTC));
+                    targets[shard] |= !skip;
+                }
+            }
+            return targets;
+        }
+    }
+}
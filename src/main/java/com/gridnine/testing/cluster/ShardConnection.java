@@ -0,0 +1,58 @@
+package com.gridnine.testing.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Coordinator side of one shard: a single socket on which calls are serialized.
+ */
+final class ShardConnection implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final InetSocketAddress address;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    ShardConnection(InetSocketAddress address) throws IOException {
+        this.address = address;
+        socket = new Socket(address.getAddress(), address.getPort());
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+    }
+
+    synchronized <T> T call(byte opcode, Body body, Reply<T> reply) throws IOException {
+        out.writeByte(opcode);
+        body.write(out);
+        out.flush();
+        if (in.readByte() == ShardProtocol.ERROR) {
+            throw new IOException("shard " + address + " failed: " + in.readUTF());
+        }
+        return reply.read(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @FunctionalInterface
+    interface Body {
+        void write(DataOutput out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Reply<T> {
+        T read(DataInput in) throws IOException;
+    }
+}
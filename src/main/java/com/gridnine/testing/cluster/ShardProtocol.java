@@ -0,0 +1,203 @@
+package com.gridnine.testing.cluster;
+
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.FlightCursor;
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightMeasure;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.dto.SortDirection;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.model.SegmentPool;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary request/response protocol between a {@link ScatterGatherFlightFilterService} and its
+ * {@link FlightShardServer}s. A request is an opcode byte followed by its body; a response starts with
+ * {@link #OK} and the result or with {@link #ERROR} and a message. Flights are identified by their
+ * position in the coordinator's list, so results carry positions only.
+ * <pre>
+ * LOAD       count, (position, flight)*                 -&gt; -
+ * FILTER     count, criteria*                           -&gt; per criteria: count, position*
+ * PAGE       criteria, sort key, direction, window, cursor? -&gt; count, (position, key, nano)*
+ * AGGREGATE  criteria, count, histogram spec*           -&gt; aggregates
+ * </pre>
+ * Timestamps travel as UTC epoch seconds and nanos.
+ */
+final class ShardProtocol {
+
+    static final byte LOAD = 1;
+    static final byte FILTER = 2;
+    static final byte PAGE = 3;
+    static final byte AGGREGATE = 4;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private ShardProtocol() {
+    }
+
+    static void writeFlight(DataOutput out, Flight flight) throws IOException {
+        out.writeInt(flight.getSegments().size());
+        for (Segment segment : flight.getSegments()) {
+            writeDateTime(out, segment.getDepartureDate());
+            writeDateTime(out, segment.getArrivalDate());
+        }
+    }
+
+    static Flight readFlight(DataInput in, SegmentPool pool) throws IOException {
+        int count = in.readInt();
+        List<Segment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(new Segment(readDateTime(in), readDateTime(in)));
+        }
+        return pool.flight(segments);
+    }
+
+    static void writeCriteria(DataOutput out, FlightFilterCriteria criteria) throws IOException {
+        writeNullableDateTime(out, criteria.beforeDeparture());
+        writeNullableDateTime(out, criteria.afterDeparture());
+        writeNullableDateTime(out, criteria.beforeArrival());
+        writeNullableDateTime(out, criteria.afterArrival());
+        writeNullableLong(out, criteria.maxGroundMinutes());
+        writeNullableLong(out, criteria.minGroundMinutes());
+        writeNullableLong(out, criteria.maxAirMinutes());
+        writeNullableLong(out, criteria.minAirMinutes());
+        writeNullableLong(out, criteria.minFlightMinutes());
+        writeNullableLong(out, criteria.maxFlightMinutes());
+        out.writeInt(criteria.minStops());
+        out.writeInt(criteria.maxStops());
+    }
+
+    static FlightFilterCriteria readCriteria(DataInput in) throws IOException {
+        return new FlightFilterCriteria(readNullableDateTime(in), readNullableDateTime(in),
+                readNullableDateTime(in), readNullableDateTime(in),
+                readNullableLong(in), readNullableLong(in), readNullableLong(in),
+                readNullableLong(in), readNullableLong(in), readNullableLong(in),
+                in.readInt(), in.readInt());
+    }
+
+    /**
+     * Writes the ordering and the cursor of a page request; the shard is asked for the whole window.
+     */
+    static void writePageRequest(DataOutput out, FlightPageRequest pageRequest) throws IOException {
+        out.writeByte(pageRequest.sortKey().ordinal());
+        out.writeByte(pageRequest.direction().ordinal());
+        out.writeInt((int) Math.min(Integer.MAX_VALUE, pageRequest.window()));
+        FlightCursor after = pageRequest.after();
+        out.writeBoolean(after != null);
+        if (after != null) {
+            out.writeLong(after.key());
+            out.writeInt(after.nano());
+            out.writeInt(after.position());
+        }
+    }
+
+    /**
+     * Reads a page request as seen by a shard: offset zero and the window as the limit.
+     */
+    static FlightPageRequest readPageRequest(DataInput in) throws IOException {
+        FlightSortKey sortKey = FlightSortKey.values()[in.readByte()];
+        SortDirection direction = SortDirection.values()[in.readByte()];
+        int window = in.readInt();
+        FlightCursor after = in.readBoolean() ? new FlightCursor(in.readLong(), in.readInt(), in.readInt()) : null;
+        return new FlightPageRequest(sortKey, direction, 0, window, after);
+    }
+
+    static void writeHistograms(DataOutput out, List<HistogramSpec> histograms) throws IOException {
+        out.writeInt(histograms.size());
+        for (HistogramSpec spec : histograms) {
+            out.writeByte(spec.measure().ordinal());
+            out.writeLong(spec.width());
+            out.writeInt(spec.buckets());
+        }
+    }
+
+    static List<HistogramSpec> readHistograms(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<HistogramSpec> histograms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            histograms.add(new HistogramSpec(FlightMeasure.values()[in.readByte()], in.readLong(), in.readInt()));
+        }
+        return histograms;
+    }
+
+    static void writeAggregates(DataOutput out, FlightAggregates aggregates) throws IOException {
+        out.writeLong(aggregates.count());
+        writeSummary(out, aggregates.airMinutes());
+        writeSummary(out, aggregates.groundMinutes());
+        writeSummary(out, aggregates.flightMinutes());
+        for (FlightAggregates.Histogram histogram : aggregates.histograms()) {
+            for (long count : histogram.counts()) {
+                out.writeLong(count);
+            }
+        }
+    }
+
+    static FlightAggregates readAggregates(DataInput in, List<HistogramSpec> histograms) throws IOException {
+        long count = in.readLong();
+        FlightAggregates.Summary air = readSummary(in);
+        FlightAggregates.Summary ground = readSummary(in);
+        FlightAggregates.Summary flight = readSummary(in);
+        List<FlightAggregates.Histogram> result = new ArrayList<>(histograms.size());
+        for (HistogramSpec spec : histograms) {
+            List<Long> counts = new ArrayList<>(spec.buckets());
+            for (int i = 0; i < spec.buckets(); i++) {
+                counts.add(in.readLong());
+            }
+            result.add(new FlightAggregates.Histogram(spec, List.copyOf(counts)));
+        }
+        return new FlightAggregates(count, air, ground, flight, List.copyOf(result));
+    }
+
+    private static void writeSummary(DataOutput out, FlightAggregates.Summary summary) throws IOException {
+        out.writeLong(summary.min());
+        out.writeLong(summary.max());
+        out.writeLong(summary.sum());
+        out.writeLong(summary.count());
+    }
+
+    private static FlightAggregates.Summary readSummary(DataInput in) throws IOException {
+        return new FlightAggregates.Summary(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeNullableDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeBoolean(dateTime != null);
+        if (dateTime != null) {
+            writeDateTime(out, dateTime);
+        }
+    }
+
+    private static LocalDateTime readNullableDateTime(DataInput in) throws IOException {
+        return in.readBoolean() ? readDateTime(in) : null;
+    }
+
+    private static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
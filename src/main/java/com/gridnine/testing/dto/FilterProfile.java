@@ -0,0 +1,24 @@
+package com.gridnine.testing.dto;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.List;
+
+/**
+ * Result of a profiled filter call: the matching flights, the wall time and scan rate of the call and,
+ * in final evaluation order, how often each criterion ran, how many flights it rejected and how long it took.
+ */
+public record FilterProfile(List<Flight> flights, long flightsScanned, long elapsedNanos,
+                            List<PredicateProfile> predicates) {
+
+    public double flightsPerSecond() {
+        return elapsedNanos > 0 ? flightsScanned * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Counts of one criterion; latencies are percentiles of single evaluations in nanoseconds.
+     */
+    public record PredicateProfile(String name, long evaluations, long passed, long rejected,
+                                   long latencyP50Nanos, long latencyP99Nanos) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.gridnine.testing.dto;
+
+import java.util.List;
+
+/**
+ * Result of an aggregate query: the number of matching flights, summaries of their air, ground and total
+ * minutes and the requested histograms.
+ */
+public record FlightAggregates(long count, Summary airMinutes, Summary groundMinutes, Summary flightMinutes,
+                               List<Histogram> histograms) {
+
+    /**
+     * Min, max and sum of a measure; all zero when nothing matched.
+     */
+    public record Summary(long min, long max, long sum, long count) {
+
+        public double average() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+    }
+
+    /**
+     * Bucket counts in the order of the bucket index of the {@link HistogramSpec}.
+     */
+    public record Histogram(HistogramSpec spec, List<Long> counts) {
+    }
+}
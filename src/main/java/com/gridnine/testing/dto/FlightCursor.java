@@ -0,0 +1,8 @@
+package com.gridnine.testing.dto;
+
+/**
+ * Position of the last flight of a page in the query order. Only valid for the dataset and the sort key
+ * of the page that produced it.
+ */
+public record FlightCursor(long key, int nano, int position) {
+}
@@ -0,0 +1,17 @@
+package com.gridnine.testing.dto;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change of the result of a standing query: flights that started matching, flights that still match
+ * but were replaced by a new version, and ids of flights that no longer match.
+ */
+public record FlightDelta(Map<Long, Flight> added, Map<Long, Flight> updated, Set<Long> removed) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,67 @@
+package com.gridnine.testing.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, normalized snapshot of a {@link FlightFilterRequest}.
+ * Durations are reduced to whole minutes and inactive stop criteria to zero,
+ * so requests that filter identically produce equal criteria.
+ */
+public record FlightFilterCriteria(LocalDateTime beforeDeparture,
+                                   LocalDateTime afterDeparture,
+                                   LocalDateTime beforeArrival,
+                                   LocalDateTime afterArrival,
+                                   Long maxGroundMinutes,
+                                   Long minGroundMinutes,
+                                   Long maxAirMinutes,
+                                   Long minAirMinutes,
+                                   Long minFlightMinutes,
+                                   Long maxFlightMinutes,
+                                   int minStops,
+                                   int maxStops) {
+
+    public static FlightFilterCriteria of(FlightFilterRequest filterRequest) {
+        return new FlightFilterCriteria(
+                filterRequest.getBeforeDeparture(),
+                filterRequest.getAfterDeparture(),
+                filterRequest.getBeforeArrival(),
+                filterRequest.getAfterArrival(),
+                minutes(filterRequest.getMaxGroundTime()),
+                minutes(filterRequest.getMinGroundTime()),
+                minutes(filterRequest.getMaxAirDuration()),
+                minutes(filterRequest.getMinAirDuration()),
+                minutes(filterRequest.getMinFlightDuration()),
+                minutes(filterRequest.getMaxFlightDuration()),
+                Math.max(filterRequest.getMinStops(), 0),
+                Math.max(filterRequest.getMaxStops(), 0));
+    }
+
+    /**
+     * Creates a new mutable request with the same criteria.
+     */
+    public FlightFilterRequest toRequest() {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setBeforeDeparture(beforeDeparture);
+        filterRequest.setAfterDeparture(afterDeparture);
+        filterRequest.setBeforeArrival(beforeArrival);
+        filterRequest.setAfterArrival(afterArrival);
+        filterRequest.setMaxGroundTime(duration(maxGroundMinutes));
+        filterRequest.setMinGroundTime(duration(minGroundMinutes));
+        filterRequest.setMaxAirDuration(duration(maxAirMinutes));
+        filterRequest.setMinAirDuration(duration(minAirMinutes));
+        filterRequest.setMinFlightDuration(duration(minFlightMinutes));
+        filterRequest.setMaxFlightDuration(duration(maxFlightMinutes));
+        filterRequest.setMinStops(minStops);
+        filterRequest.setMaxStops(maxStops);
+        return filterRequest;
+    }
+
+    private static Long minutes(Duration duration) {
+        return duration != null ? duration.toMinutes() : null;
+    }
+
+    private static Duration duration(Long minutes) {
+        return minutes != null ? Duration.ofMinutes(minutes) : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.gridnine.testing.dto;
+
+/**
+ * Per-flight values that aggregate queries summarize and bucket.
+ */
+public enum FlightMeasure {
+    AIR_MINUTES,
+    GROUND_MINUTES,
+    FLIGHT_MINUTES,
+    STOPS;
+
+    /**
+     * Picks this measure out of a flight's values, which may come from its stats or from store columns.
+     */
+    public long value(long airMinutes, long groundMinutes, long flightMinutes, long stops) {
+        return switch (this) {
+            case AIR_MINUTES -> airMinutes;
+            case GROUND_MINUTES -> groundMinutes;
+            case FLIGHT_MINUTES -> flightMinutes;
+            case STOPS -> stops;
+        };
+    }
+}
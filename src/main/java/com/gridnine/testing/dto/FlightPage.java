@@ -0,0 +1,11 @@
+package com.gridnine.testing.dto;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.List;
+
+/**
+ * One page of an ordered query; {@code next} is {@code null} when the page was not full.
+ */
+public record FlightPage(List<Flight> flights, FlightCursor next) {
+}
@@ -0,0 +1,44 @@
+package com.gridnine.testing.dto;
+
+/**
+ * Ordering and bounds of a paginated query. Flights after the optional {@code after} cursor are skipped
+ * by {@code offset}, then at most {@code limit} flights are returned.
+ */
+public record FlightPageRequest(FlightSortKey sortKey, SortDirection direction, int offset, int limit,
+                                FlightCursor after) {
+
+    public FlightPageRequest {
+        if (sortKey == null || direction == null) {
+            throw new IllegalArgumentException("sort key and direction are required");
+        }
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("offset must not be negative and limit must be positive");
+        }
+    }
+
+    public static FlightPageRequest of(FlightSortKey sortKey, SortDirection direction, int limit) {
+        return new FlightPageRequest(sortKey, direction, 0, limit, null);
+    }
+
+    public FlightPageRequest withOffset(int offset) {
+        return new FlightPageRequest(sortKey, direction, offset, limit, after);
+    }
+
+    /**
+     * Request for the page following the given one, or {@code null} when it was the last page.
+     */
+    public FlightPageRequest next(FlightPage page) {
+        return page.next() != null ? new FlightPageRequest(sortKey, direction, 0, limit, page.next()) : null;
+    }
+
+    public boolean descending() {
+        return direction == SortDirection.DESCENDING;
+    }
+
+    /**
+     * Number of matches in order that have to be found: the skipped ones and the page itself.
+     */
+    public long window() {
+        return (long) offset + limit;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gridnine.testing.dto;
+
+import com.gridnine.testing.model.FlightStats;
+
+/**
+ * Sort keys of paginated queries. Ties are broken by the position of the flight in the dataset.
+ */
+public enum FlightSortKey {
+
+    /**
+     * Earliest departure over all segments.
+     */
+    FIRST_DEPARTURE,
+    FLIGHT_TIME,
+    GROUND_TIME,
+    STOPS;
+
+    /**
+     * Primary key of the flight: epoch seconds for {@link #FIRST_DEPARTURE}, minutes or stops otherwise.
+     */
+    public long key(FlightStats stats) {
+        return switch (this) {
+            case FIRST_DEPARTURE -> stats.earliestDepartureSecond();
+            case FLIGHT_TIME -> stats.flightMinutes();
+            case GROUND_TIME -> stats.groundMinutes();
+            case STOPS -> stats.stops();
+        };
+    }
+
+    /**
+     * Secondary key, the nanos of the departure for {@link #FIRST_DEPARTURE} and zero otherwise.
+     */
+    public int nano(FlightStats stats) {
+        return this == FIRST_DEPARTURE ? stats.earliestDepartureNano() : 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.gridnine.testing.dto;
+
+/**
+ * Equal-width buckets over a measure: bucket {@code i} covers {@code [i * width, (i + 1) * width)}.
+ * The first and the last bucket are open-ended, so every value is counted.
+ */
+public record HistogramSpec(FlightMeasure measure, long width, int buckets) {
+
+    public HistogramSpec {
+        if (measure == null || width < 1 || buckets < 1) {
+            throw new IllegalArgumentException("measure, positive width and bucket count are required");
+        }
+    }
+
+    public int bucket(long value) {
+        return (int) Math.max(0, Math.min(buckets - 1, Math.floorDiv(value, width)));
+    }
+}
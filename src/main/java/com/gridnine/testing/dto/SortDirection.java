@@ -0,0 +1,9 @@
+package com.gridnine.testing.dto;
+
+/**
+ * Order of a paginated query; {@link #DESCENDING} is the exact reverse of {@link #ASCENDING}, tie-breaks included.
+ */
+public enum SortDirection {
+    ASCENDING,
+    DESCENDING
+}
@@ -2,11 +2,15 @@ package com.gridnine.testing.factory;
 
 import com.gridnine.testing.model.Flight;
 import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.model.SegmentPool;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.util.EpochMinutes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Factory class to get sample list of flights.
@@ -33,6 +37,49 @@ public class FlightBuilder {
                         threeDaysFromNow.plusHours(6), threeDaysFromNow.plusHours(7)));
     }
 
+    /**
+     * Generates a reproducible synthetic schedule of {@code config.getFlights()} flights.
+     */
+    public static List<Flight> createFlights(ScheduleConfig config) {
+        return createFlights(config, null);
+    }
+
+    /**
+     * Generates the same schedule as {@link #createFlights(ScheduleConfig)} with segments and itineraries
+     * interned in {@code pool}, or not interned when it is {@code null}.
+     */
+    public static List<Flight> createFlights(ScheduleConfig config, SegmentPool pool) {
+        ScheduleGenerator generator = new ScheduleGenerator(config);
+        List<Flight> flights = new ArrayList<>(config.getFlights());
+        for (int i = 0; i < config.getFlights(); i++) {
+            int count = generator.next();
+            List<Segment> segments = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                segments.add(new Segment(EpochMinutes.toLocalDateTime(generator.departures[j]),
+                        EpochMinutes.toLocalDateTime(generator.arrivals[j])));
+            }
+            flights.add(pool != null ? pool.flight(segments) : new Flight(segments));
+        }
+        return flights;
+    }
+
+    /**
+     * Generates the same schedule as {@link #createFlights(ScheduleConfig)} straight into a columnar store,
+     * without allocating anything per flight.
+     */
+    public static FlightStore createStore(ScheduleConfig config) {
+        ScheduleGenerator generator = new ScheduleGenerator(config);
+        FlightStore.Builder builder = FlightStore.builder();
+        for (int i = 0; i < config.getFlights(); i++) {
+            int count = generator.next();
+            for (int j = 0; j < count; j++) {
+                builder.addSegment(generator.departures[j], generator.arrivals[j]);
+            }
+            builder.endFlight();
+        }
+        return builder.build();
+    }
+
     private static Flight createFlight(final LocalDateTime... dates) {
         if ((dates.length % 2) != 0) {
             throw new IllegalArgumentException(
@@ -44,4 +91,109 @@ public class FlightBuilder {
         }
         return new Flight(segments);
     }
+
+    private static final class ScheduleGenerator {
+
+        private static final double BLOCK_SIGMA = 0.5;
+        private static final int MINUTES_PER_DAY = 24 * 60;
+        private static final int REGULAR_GROUND_MINUTES = 120;
+
+        private final ScheduleConfig config;
+        private final SplittableRandom random;
+        private final double[] cumulativeWeights;
+        private final int[] waveMinutes;
+        private final long start;
+        private final long pastBefore;
+        private final long[] departures;
+        private final long[] arrivals;
+
+        private ScheduleGenerator(ScheduleConfig config) {
+            this.config = config;
+            random = new SplittableRandom(config.getSeed());
+            double[] weights = config.getSegmentCountWeights();
+            cumulativeWeights = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulativeWeights[i] = sum;
+            }
+            for (int i = 0; i < weights.length; i++) {
+                cumulativeWeights[i] /= sum;
+            }
+            waveMinutes = Arrays.stream(config.getWaveHours()).map(hour -> hour * 60).toArray();
+            start = EpochMinutes.of(config.getStart());
+            pastBefore = Math.min(start, EpochMinutes.of(LocalDateTime.now(config.getClock())));
+            departures = new long[Math.max(weights.length, 2)];
+            arrivals = new long[Math.max(weights.length, 2)];
+        }
+
+        /**
+         * Fills {@code departures}/{@code arrivals} with the next flight and returns its segment count.
+         * Each anomaly produces exactly the flights of the filter it exercises: a past flight departs all its
+         * segments before both the clock's now and the start, every segment of a backward flight arrives before
+         * it departs, and only long ground time flights spend more than two hours on the ground.
+         */
+        private int next() {
+            double anomaly = random.nextDouble();
+            boolean pastDeparture = anomaly < config.getPastDepartureShare();
+            anomaly -= config.getPastDepartureShare();
+            boolean arrivalBeforeDeparture = !pastDeparture && anomaly >= 0
+                    && anomaly < config.getArrivalBeforeDepartureShare();
+            anomaly -= config.getArrivalBeforeDepartureShare();
+            boolean longGroundTime = !pastDeparture && !arrivalBeforeDeparture && anomaly >= 0
+                    && anomaly < config.getLongGroundTimeShare();
+
+            int count = segmentCount();
+            if (longGroundTime && count < 2) {
+                count = 2;
+            }
+
+            int day = random.nextInt(config.getDays());
+            int wave = waveMinutes[random.nextInt(waveMinutes.length)];
+            long departure = Math.max(start, start + (long) day * MINUTES_PER_DAY + wave
+                    + Math.round(random.nextGaussian() * config.getWaveSpreadMinutes()));
+
+            int longGap = longGroundTime ? 1 + random.nextInt(count - 1) : -1;
+            long groundBudget = REGULAR_GROUND_MINUTES;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    long layover;
+                    if (i == longGap) {
+                        layover = REGULAR_GROUND_MINUTES + 1 + random.nextInt(600);
+                    } else {
+                        layover = Math.min(groundBudget,
+                                random.nextInt(config.getMinLayoverMinutes(), config.getMaxLayoverMinutes() + 1));
+                        groundBudget -= layover;
+                    }
+                    departure = arrivals[i - 1] + layover;
+                }
+                departures[i] = departure;
+                arrivals[i] = arrivalBeforeDeparture ? departure - 30 - random.nextInt(330) : departure + blockMinutes();
+            }
+
+            if (pastDeparture) {
+                long shift = pastBefore - 1 - random.nextInt(config.getDays() * MINUTES_PER_DAY) - departures[count - 1];
+                for (int i = 0; i < count; i++) {
+                    departures[i] += shift;
+                    arrivals[i] += shift;
+                }
+            }
+            return count;
+        }
+
+        private int segmentCount() {
+            double value = random.nextDouble();
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return i + 1;
+                }
+            }
+            return cumulativeWeights.length;
+        }
+
+        private long blockMinutes() {
+            double block = config.getMedianBlockMinutes() * Math.exp(BLOCK_SIGMA * random.nextGaussian());
+            return Math.max(config.getMinBlockMinutes(), Math.min(config.getMaxBlockMinutes(), Math.round(block)));
+        }
+    }
 }
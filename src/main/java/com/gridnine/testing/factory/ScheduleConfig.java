@@ -0,0 +1,236 @@
+package com.gridnine.testing.factory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Distributions used by {@link FlightBuilder} to generate synthetic schedules.
+ * Durations are in minutes, shares are probabilities per flight. Regular flights depart from {@code start} on,
+ * departures spread before it are clamped to it. By default it is the next midnight of the clock,
+ * so that only past departure anomalies have departed.
+ */
+public final class ScheduleConfig {
+
+    private final long seed;
+    private final int flights;
+    private final Clock clock;
+    private final LocalDateTime start;
+    private final int days;
+    private final double[] segmentCountWeights;
+    private final int[] waveHours;
+    private final int waveSpreadMinutes;
+    private final int medianBlockMinutes;
+    private final int minBlockMinutes;
+    private final int maxBlockMinutes;
+    private final int minLayoverMinutes;
+    private final int maxLayoverMinutes;
+    private final double pastDepartureShare;
+    private final double arrivalBeforeDepartureShare;
+    private final double longGroundTimeShare;
+
+    private ScheduleConfig(Builder builder) {
+        seed = builder.seed;
+        flights = builder.flights;
+        clock = builder.clock;
+        start = builder.start != null ? builder.start : LocalDate.now(clock).plusDays(1).atStartOfDay();
+        days = builder.days;
+        segmentCountWeights = builder.segmentCountWeights.clone();
+        waveHours = builder.waveHours.clone();
+        waveSpreadMinutes = builder.waveSpreadMinutes;
+        medianBlockMinutes = builder.medianBlockMinutes;
+        minBlockMinutes = builder.minBlockMinutes;
+        maxBlockMinutes = builder.maxBlockMinutes;
+        minLayoverMinutes = builder.minLayoverMinutes;
+        maxLayoverMinutes = builder.maxLayoverMinutes;
+        pastDepartureShare = builder.pastDepartureShare;
+        arrivalBeforeDepartureShare = builder.arrivalBeforeDepartureShare;
+        longGroundTimeShare = builder.longGroundTimeShare;
+    }
+
+    public static Builder builder(long seed, int flights) {
+        return new Builder(seed, flights);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public double[] getSegmentCountWeights() {
+        return segmentCountWeights.clone();
+    }
+
+    public int[] getWaveHours() {
+        return waveHours.clone();
+    }
+
+    public int getWaveSpreadMinutes() {
+        return waveSpreadMinutes;
+    }
+
+    public int getMedianBlockMinutes() {
+        return medianBlockMinutes;
+    }
+
+    public int getMinBlockMinutes() {
+        return minBlockMinutes;
+    }
+
+    public int getMaxBlockMinutes() {
+        return maxBlockMinutes;
+    }
+
+    public int getMinLayoverMinutes() {
+        return minLayoverMinutes;
+    }
+
+    public int getMaxLayoverMinutes() {
+        return maxLayoverMinutes;
+    }
+
+    public double getPastDepartureShare() {
+        return pastDepartureShare;
+    }
+
+    public double getArrivalBeforeDepartureShare() {
+        return arrivalBeforeDepartureShare;
+    }
+
+    public double getLongGroundTimeShare() {
+        return longGroundTimeShare;
+    }
+
+    public static final class Builder {
+
+        private final long seed;
+        private final int flights;
+        private Clock clock = Clock.systemDefaultZone();
+        private LocalDateTime start;
+        private int days = 30;
+        private double[] segmentCountWeights = {0.55, 0.30, 0.12, 0.03};
+        private int[] waveHours = {7, 12, 18, 22};
+        private int waveSpreadMinutes = 90;
+        private int medianBlockMinutes = 150;
+        private int minBlockMinutes = 40;
+        private int maxBlockMinutes = 16 * 60;
+        private int minLayoverMinutes = 40;
+        private int maxLayoverMinutes = 110;
+        private double pastDepartureShare = 0.05;
+        private double arrivalBeforeDepartureShare = 0.01;
+        private double longGroundTimeShare = 0.10;
+
+        private Builder(long seed, int flights) {
+            if (flights < 0) {
+                throw new IllegalArgumentException("flights must not be negative");
+            }
+            this.seed = seed;
+            this.flights = flights;
+        }
+
+        /**
+         * Clock whose current time past departure anomalies are placed before.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder start(LocalDateTime start) {
+            this.start = start;
+            return this;
+        }
+
+        public Builder days(int days) {
+            if (days < 1) {
+                throw new IllegalArgumentException("days must be positive");
+            }
+            this.days = days;
+            return this;
+        }
+
+        /**
+         * Relative weights of itineraries with 1, 2, 3, ... segments.
+         */
+        public Builder segmentCountWeights(double... weights) {
+            if (weights.length == 0 || Arrays.stream(weights).anyMatch(weight -> weight < 0)
+                    || Arrays.stream(weights).sum() <= 0) {
+                throw new IllegalArgumentException("segment count weights must be non-negative with a positive sum");
+            }
+            this.segmentCountWeights = weights.clone();
+            return this;
+        }
+
+        /**
+         * Hours of the day around which departures cluster, with a normal spread in minutes.
+         */
+        public Builder waves(int spreadMinutes, int... hours) {
+            if (spreadMinutes < 0) {
+                throw new IllegalArgumentException("wave spread must not be negative");
+            }
+            if (hours.length == 0 || Arrays.stream(hours).anyMatch(hour -> hour < 0 || hour > 23)) {
+                throw new IllegalArgumentException("wave hours must be within 0..23");
+            }
+            this.waveSpreadMinutes = spreadMinutes;
+            this.waveHours = hours.clone();
+            return this;
+        }
+
+        /**
+         * Log-normal block time with the given median, clamped to {@code [min, max]}.
+         */
+        public Builder blockMinutes(int min, int median, int max) {
+            if (min <= 0 || median < min || max < median) {
+                throw new IllegalArgumentException("block minutes must satisfy 0 < min <= median <= max");
+            }
+            this.minBlockMinutes = min;
+            this.medianBlockMinutes = median;
+            this.maxBlockMinutes = max;
+            return this;
+        }
+
+        /**
+         * Uniform layover length of regular connections, shortened where needed to keep the ground time
+         * of a regular flight within two hours.
+         */
+        public Builder layoverMinutes(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("layover minutes must satisfy 0 <= min <= max");
+            }
+            this.minLayoverMinutes = min;
+            this.maxLayoverMinutes = max;
+            return this;
+        }
+
+        public Builder anomalies(double pastDeparture, double arrivalBeforeDeparture, double longGroundTime) {
+            if (pastDeparture < 0 || arrivalBeforeDeparture < 0 || longGroundTime < 0
+                    || pastDeparture + arrivalBeforeDeparture + longGroundTime > 1) {
+                throw new IllegalArgumentException("anomaly shares must be non-negative and sum up to at most 1");
+            }
+            this.pastDepartureShare = pastDeparture;
+            this.arrivalBeforeDepartureShare = arrivalBeforeDeparture;
+            this.longGroundTimeShare = longGroundTime;
+            return this;
+        }
+
+        public ScheduleConfig build() {
+            return new ScheduleConfig(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gridnine.testing.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Byte-at-a-time reader over a channel backed by a single reusable direct buffer.
+ */
+final class ByteSource implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private boolean endOfInput;
+    private long position;
+
+    ByteSource(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * Returns the next byte without consuming it, or -1 at the end of input.
+     */
+    int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        position++;
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads exactly {@code count} bytes into the target, returns false if the input ends first.
+     */
+    boolean read(byte[] target, int count) throws IOException {
+        int copied = 0;
+        while (copied < count) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return false;
+            }
+            int chunk = Math.min(count - copied, buffer.remaining());
+            buffer.get(target, copied, chunk);
+            copied += chunk;
+            position += chunk;
+        }
+        return true;
+    }
+
+    long position() {
+        return position;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,98 @@
+package com.gridnine.testing.ingest;
+
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.util.DateTimeParser;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads one flight per line as comma separated departure/arrival pairs:
+ * {@code 2024-03-01T10:00,2024-03-01T12:00,2024-03-01T13:00,2024-03-01T15:00}.
+ * Lines that do not start with a digit (headers, {@code #} comments) are skipped.
+ */
+final class FlightCsvReader {
+
+    private final ByteSource source;
+    private final FlightStore.Builder builder;
+    private final byte[] field = new byte[DateTimeParser.LENGTH];
+    private long line = 1;
+    private long segments;
+
+    FlightCsvReader(ByteSource source, FlightStore.Builder builder) {
+        this.source = source;
+        this.builder = builder;
+    }
+
+    long read() throws IOException {
+        long rows = 0;
+        int next;
+        while ((next = source.peek()) != -1) {
+            if (next == '\n' || next == '\r') {
+                source.read();
+                line += next == '\n' ? 1 : 0;
+                continue;
+            }
+            if (next < '0' || next > '9') {
+                skipLine();
+                continue;
+            }
+            readRow();
+            rows++;
+        }
+        return rows;
+    }
+
+    long segments() {
+        return segments;
+    }
+
+    private void readRow() throws IOException {
+        while (true) {
+            long departure = readDateTime();
+            if (source.read() != ',') {
+                throw error("you must pass an even number of dates");
+            }
+            long arrival = readDateTime();
+            builder.addSegment(departure, arrival);
+            segments++;
+
+            int separator = source.read();
+            if (separator == ',') {
+                continue;
+            }
+            if (separator == '\r' && source.peek() == '\n') {
+                separator = source.read();
+            }
+            if (separator != '\n' && separator != '\r' && separator != -1) {
+                throw error("unexpected character '" + (char) separator + "'");
+            }
+            line += separator == '\n' ? 1 : 0;
+            builder.endFlight();
+            return;
+        }
+    }
+
+    private long readDateTime() throws IOException {
+        if (!source.read(field, DateTimeParser.LENGTH)) {
+            throw error("unexpected end of input");
+        }
+        try {
+            return DateTimeParser.parseEpochMinutes(field, 0);
+        } catch (DateTimeParseException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int next;
+        do {
+            next = source.read();
+        } while (next != '\n' && next != -1);
+        line++;
+    }
+
+    private IOException error(String message) {
+        return new IOException("line " + line + ": " + message);
+    }
+}
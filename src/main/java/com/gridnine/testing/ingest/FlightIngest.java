@@ -0,0 +1,48 @@
+package com.gridnine.testing.ingest;
+
+import com.gridnine.testing.store.FlightStore;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Streams CSV and JSON flight files into a {@link FlightStore} without creating per-field objects.
+ */
+public final class FlightIngest {
+
+    private static final Logger logger = Logger.getLogger(FlightIngest.class.getName());
+
+    private FlightIngest() {
+    }
+
+    public static IngestResult readCsv(Path path) throws IOException {
+        long start = System.nanoTime();
+        FlightStore.Builder builder = FlightStore.builder();
+        try (ByteSource source = new ByteSource(FileChannel.open(path, StandardOpenOption.READ))) {
+            FlightCsvReader reader = new FlightCsvReader(source, builder);
+            long rows = reader.read();
+            return report(path, builder, rows, reader.segments(), start);
+        }
+    }
+
+    public static IngestResult readJson(Path path) throws IOException {
+        long start = System.nanoTime();
+        FlightStore.Builder builder = FlightStore.builder();
+        try (ByteSource source = new ByteSource(FileChannel.open(path, StandardOpenOption.READ))) {
+            FlightJsonReader reader = new FlightJsonReader(source, builder);
+            long rows = reader.read();
+            return report(path, builder, rows, reader.segments(), start);
+        }
+    }
+
+    private static IngestResult report(Path path, FlightStore.Builder builder, long rows, long segments, long start) {
+        FlightStore store = builder.build();
+        IngestResult result = new IngestResult(store, rows, segments, System.nanoTime() - start);
+        logger.info(String.format("Загружено %s: %d перелётов, %d сегментов за %d мс (%.0f строк/с)",
+                path.getFileName(), rows, segments, result.elapsedNanos() / 1_000_000, result.rowsPerSecond()));
+        return result;
+    }
+}
@@ -0,0 +1,214 @@
+package com.gridnine.testing.ingest;
+
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.util.DateTimeParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of a JSON array of flights:
+ * {@code [{"segments": [{"departure": "2024-03-01T10:00", "arrival": "2024-03-01T12:00"}]}]}.
+ * Unknown keys are skipped, nothing but the segment times is kept.
+ */
+final class FlightJsonReader {
+
+    private static final byte[] SEGMENTS = "segments".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DEPARTURE = "departure".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARRIVAL = "arrival".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final ByteSource source;
+    private final FlightStore.Builder builder;
+    private final byte[] key = new byte[MAX_KEY_LENGTH];
+    private final byte[] value = new byte[DateTimeParser.LENGTH];
+    private int keyLength;
+    private long segments;
+
+    FlightJsonReader(ByteSource source, FlightStore.Builder builder) {
+        this.source = source;
+        this.builder = builder;
+    }
+
+    long read() throws IOException {
+        long rows = 0;
+        expect('[');
+        if (peekToken() == ']') {
+            source.read();
+            return rows;
+        }
+        do {
+            readFlight();
+            rows++;
+        } while (nextInList(']'));
+        return rows;
+    }
+
+    long segments() {
+        return segments;
+    }
+
+    private void readFlight() throws IOException {
+        expect('{');
+        if (peekToken() == '}') {
+            source.read();
+            builder.endFlight();
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(SEGMENTS)) {
+                readSegments();
+            } else {
+                skipValue();
+            }
+        } while (nextInList('}'));
+        builder.endFlight();
+    }
+
+    private void readSegments() throws IOException {
+        expect('[');
+        if (peekToken() == ']') {
+            source.read();
+            return;
+        }
+        do {
+            readSegment();
+        } while (nextInList(']'));
+    }
+
+    private void readSegment() throws IOException {
+        long departure = Long.MIN_VALUE;
+        long arrival = Long.MIN_VALUE;
+        expect('{');
+        if (peekToken() != '}') {
+            do {
+                readKey();
+                expect(':');
+                if (keyIs(DEPARTURE)) {
+                    departure = readDateTime();
+                } else if (keyIs(ARRIVAL)) {
+                    arrival = readDateTime();
+                } else {
+                    skipValue();
+                }
+            } while (nextInList('}'));
+        } else {
+            source.read();
+        }
+        if (departure == Long.MIN_VALUE || arrival == Long.MIN_VALUE) {
+            throw error("segment must have departure and arrival");
+        }
+        builder.addSegment(departure, arrival);
+        segments++;
+    }
+
+    private long readDateTime() throws IOException {
+        expect('"');
+        if (!source.read(value, DateTimeParser.LENGTH) || source.read() != '"') {
+            throw error("expected date-time in yyyy-MM-dd'T'HH:mm");
+        }
+        try {
+            return DateTimeParser.parseEpochMinutes(value, 0);
+        } catch (DateTimeParseException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    private void readKey() throws IOException {
+        expect('"');
+        keyLength = 0;
+        int next;
+        while ((next = source.read()) != '"') {
+            if (next == -1) {
+                throw error("unterminated string");
+            }
+            if (next == '\\') {
+                source.read();
+            }
+            if (keyLength < MAX_KEY_LENGTH) {
+                key[keyLength] = (byte) next;
+            }
+            keyLength++;
+        }
+    }
+
+    private boolean keyIs(byte[] expected) {
+        return keyLength == expected.length && Arrays.equals(key, 0, keyLength, expected, 0, expected.length);
+    }
+
+    /**
+     * Consumes either a comma (more elements follow) or the closing bracket.
+     */
+    private boolean nextInList(char close) throws IOException {
+        int next = peekToken();
+        source.read();
+        if (next == ',') {
+            return true;
+        }
+        if (next == close) {
+            return false;
+        }
+        throw error("expected ',' or '" + close + "'");
+    }
+
+    private void skipValue() throws IOException {
+        int next = peekToken();
+        if (next == '"') {
+            source.read();
+            int c;
+            while ((c = source.read()) != '"') {
+                if (c == -1) {
+                    throw error("unterminated string");
+                }
+                if (c == '\\') {
+                    source.read();
+                }
+            }
+        } else if (next == '{' || next == '[') {
+            char close = next == '{' ? '}' : ']';
+            source.read();
+            if (peekToken() == close) {
+                source.read();
+                return;
+            }
+            do {
+                if (close == '}') {
+                    readKey();
+                    expect(':');
+                }
+                skipValue();
+            } while (nextInList(close));
+        } else {
+            while ((next = source.peek()) != -1 && next != ',' && next != '}' && next != ']' && !isWhitespace(next)) {
+                source.read();
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peekToken() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+        source.read();
+    }
+
+    private int peekToken() throws IOException {
+        int next;
+        while (isWhitespace(next = source.peek())) {
+            source.read();
+        }
+        return next;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private IOException error(String message) {
+        return new IOException("offset " + source.position() + ": " + message);
+    }
+}
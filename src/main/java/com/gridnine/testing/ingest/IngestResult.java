@@ -0,0 +1,13 @@
+package com.gridnine.testing.ingest;
+
+import com.gridnine.testing.store.FlightStore;
+
+/**
+ * Loaded store with ingest throughput figures.
+ */
+public record IngestResult(FlightStore store, long rows, long segments, long elapsedNanos) {
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
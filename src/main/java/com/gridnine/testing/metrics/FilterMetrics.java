@@ -0,0 +1,194 @@
+package com.gridnine.testing.metrics;
+
+import com.gridnine.testing.util.FlightPredicate;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Call latency, scan throughput and per-criterion metrics of a filter service.
+ * Criteria are tracked by name; after {@link #register} every criterion seen so far and every new one is
+ * published as its own MBean next to this one. Thread-safe.
+ */
+public final class FilterMetrics implements FilterMetricsMXBean {
+
+    private static final Logger logger = Logger.getLogger(FilterMetrics.class.getName());
+
+    public static final String DOMAIN = "com.gridnine.testing";
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private final String name;
+    private final int sampleInterval;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder flightsScanned = new LongAdder();
+    private final LongAdder flightsMatched = new LongAdder();
+    private final LongAdder scanNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<String, PredicateMetrics> predicates = new ConcurrentHashMap<>();
+    private volatile MBeanServer server;
+
+    public FilterMetrics(String name) {
+        this(name, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval one in how many criterion evaluations is timed, {@code 1} times all of them
+     */
+    public FilterMetrics(String name, int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("sample interval must be positive");
+        }
+        this.name = name;
+        this.sampleInterval = sampleInterval;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Wraps the criterion so that its evaluations are counted under its name, which is kept.
+     */
+    public FlightPredicate instrument(FlightPredicate filter) {
+        return new FlightPredicate(filter.name(), predicate(filter.name()).instrument(filter.predicate()));
+    }
+
+    public void recordCall(long scanned, long matched, long nanos) {
+        calls.increment();
+        flightsScanned.add(scanned);
+        flightsMatched.add(matched);
+        scanNanos.add(nanos);
+        latency.record(nanos);
+    }
+
+    public PredicateMetrics predicate(String predicateName) {
+        PredicateMetrics metrics = predicates.get(predicateName);
+        if (metrics != null) {
+            return metrics;
+        }
+        PredicateMetrics created = new PredicateMetrics(predicateName, sampleInterval);
+        metrics = predicates.putIfAbsent(predicateName, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        MBeanServer registeredServer = server;
+        if (registeredServer != null) {
+            try {
+                registeredServer.registerMBean(created, objectName(predicateName));
+            } catch (JMException e) {
+                logger.warning("Не удалось зарегистрировать метрики фильтра " + predicateName + ": " + e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    public Collection<PredicateMetrics> predicates() {
+        return List.copyOf(predicates.values());
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * Publishes this bean as {@code com.gridnine.testing:type=FilterMetrics,name=<name>} and each criterion
+     * with an additional {@code predicate=<criterion>} key.
+     */
+    public synchronized void register(MBeanServer mBeanServer) {
+        try {
+            mBeanServer.registerMBean(this, objectName(null));
+            server = mBeanServer;
+            for (PredicateMetrics metrics : predicates.values()) {
+                ObjectName objectName = objectName(metrics.getName());
+                if (!mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.registerMBean(metrics, objectName);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register filter metrics " + name, e);
+        }
+    }
+
+    public synchronized void unregister() {
+        MBeanServer registeredServer = server;
+        if (registeredServer == null) {
+            return;
+        }
+        server = null;
+        try {
+            registeredServer.unregisterMBean(objectName(null));
+            for (PredicateMetrics metrics : predicates.values()) {
+                ObjectName objectName = objectName(metrics.getName());
+                if (registeredServer.isRegistered(objectName)) {
+                    registeredServer.unregisterMBean(objectName);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister filter metrics " + name, e);
+        }
+    }
+
+    public ObjectName objectName(String predicateName) throws JMException {
+        String objectName = DOMAIN + ":type=FilterMetrics,name=" + ObjectName.quote(name);
+        return new ObjectName(predicateName == null ? objectName
+                : objectName + ",predicate=" + ObjectName.quote(predicateName));
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getFlightsScanned() {
+        return flightsScanned.sum();
+    }
+
+    @Override
+    public long getFlightsMatched() {
+        return flightsMatched.sum();
+    }
+
+    @Override
+    public double getFlightsPerSecond() {
+        long nanos = scanNanos.sum();
+        return nanos > 0 ? flightsScanned.sum() * 1e9 / nanos : 0;
+    }
+
+    @Override
+    public double getLatencyMeanMillis() {
+        return latency.mean() / 1e6;
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latency.percentile(0.5) / 1e6;
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latency.percentile(0.99) / 1e6;
+    }
+
+    @Override
+    public double getLatencyP999Millis() {
+        return latency.percentile(0.999) / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        flightsScanned.reset();
+        flightsMatched.reset();
+        scanNanos.reset();
+        latency.reset();
+        predicates.values().forEach(PredicateMetrics::reset);
+    }
+}
@@ -0,0 +1,25 @@
+package com.gridnine.testing.metrics;
+
+/**
+ * JMX view of the filter calls of one service.
+ */
+public interface FilterMetricsMXBean {
+
+    long getCalls();
+
+    long getFlightsScanned();
+
+    long getFlightsMatched();
+
+    double getFlightsPerSecond();
+
+    double getLatencyMeanMillis();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyP999Millis();
+
+    void reset();
+}
@@ -0,0 +1,93 @@
+package com.gridnine.testing.metrics;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Evaluation and pass counts of one filter criterion, with the latency of a random sample of evaluations.
+ * Timing every evaluation would cost more than the stats lookups being measured, so only one evaluation
+ * in {@code sampleInterval} is timed.
+ */
+public final class PredicateMetrics implements PredicateMetricsMXBean {
+
+    private final String name;
+    private final int sampleInterval;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    PredicateMetrics(String name, int sampleInterval) {
+        this.name = name;
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Returns a predicate that evaluates {@code predicate} and records the outcome here.
+     */
+    public Predicate<Flight> instrument(Predicate<Flight> predicate) {
+        return flight -> {
+            boolean result;
+            if (sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+                long start = System.nanoTime();
+                result = predicate.test(flight);
+                latency.record(System.nanoTime() - start);
+            } else {
+                result = predicate.test(flight);
+            }
+            evaluations.increment();
+            if (result) {
+                passed.increment();
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return getEvaluations() - getPassed();
+    }
+
+    @Override
+    public double getPassRate() {
+        long total = getEvaluations();
+        return total > 0 ? (double) getPassed() / total : 0;
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.percentile(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.percentile(0.99);
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    void reset() {
+        evaluations.reset();
+        passed.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package com.gridnine.testing.metrics;
+
+/**
+ * JMX view of one filter criterion.
+ */
+public interface PredicateMetricsMXBean {
+
+    String getName();
+
+    long getEvaluations();
+
+    long getPassed();
+
+    long getRejected();
+
+    double getPassRate();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+}
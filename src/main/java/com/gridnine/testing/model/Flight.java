@@ -1,7 +1,6 @@
 package com.gridnine.testing.model;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Bean that represents a flight.
@@ -9,17 +8,46 @@ import java.util.stream.Collectors;
 public class Flight {
     private final List<Segment> segments;
 
+    private final FlightStats stats;
+
+    private final Itinerary itinerary;
+
     public Flight(final List<Segment> segs) {
-        segments = segs;
+        segments = List.copyOf(segs);
+        stats = FlightStats.of(segments);
+        itinerary = null;
+    }
+
+    /**
+     * Flight that shares the canonical segments and stats of an interned itinerary.
+     */
+    Flight(final Itinerary itinerary) {
+        segments = itinerary.segments();
+        stats = itinerary.stats();
+        this.itinerary = itinerary;
     }
 
     public List<Segment> getSegments() {
         return segments;
     }
 
+    public FlightStats getStats() {
+        return stats;
+    }
+
+    Itinerary itinerary() {
+        return itinerary;
+    }
+
     @Override
     public String toString() {
-        return segments.stream().map(Object::toString)
-                .collect(Collectors.joining(" "));
+        StringBuilder builder = new StringBuilder(segments.size() * 35);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            segments.get(i).appendTo(builder);
+        }
+        return builder.toString();
     }
 }
@@ -0,0 +1,58 @@
+package com.gridnine.testing.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Per-flight aggregates computed once when the flight is created.
+ * Durations are in whole minutes and match {@code Duration.between(...).toMinutes()} per segment or gap,
+ * {@code backwardSegments} counts segments that arrive before they depart.
+ * The earliest departure and the latest arrival are kept as UTC epoch seconds plus nanos;
+ * a flight without segments has {@code Long.MAX_VALUE} and {@code Long.MIN_VALUE} seconds respectively.
+ */
+public record FlightStats(int stops, long groundMinutes, long airMinutes, long flightMinutes, int backwardSegments,
+                          long earliestDepartureSecond, int earliestDepartureNano,
+                          long latestArrivalSecond, int latestArrivalNano) {
+
+    public static FlightStats of(List<Segment> segments) {
+        long groundMinutes = 0;
+        long airMinutes = 0;
+        int backwardSegments = 0;
+        LocalDateTime earliestDeparture = null;
+        LocalDateTime latestArrival = null;
+
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            airMinutes += minutesBetween(segment.getDepartureDate(), segment.getArrivalDate());
+            if (segment.getArrivalDate().isBefore(segment.getDepartureDate())) {
+                backwardSegments++;
+            }
+            if (i > 0) {
+                groundMinutes += minutesBetween(segments.get(i - 1).getArrivalDate(), segment.getDepartureDate());
+            }
+            if (earliestDeparture == null || segment.getDepartureDate().isBefore(earliestDeparture)) {
+                earliestDeparture = segment.getDepartureDate();
+            }
+            if (latestArrival == null || segment.getArrivalDate().isAfter(latestArrival)) {
+                latestArrival = segment.getArrivalDate();
+            }
+        }
+
+        long flightMinutes = segments.isEmpty() ? 0 : minutesBetween(
+                segments.get(0).getDepartureDate(), segments.get(segments.size() - 1).getArrivalDate());
+        return new FlightStats(segments.size() - 1, groundMinutes, airMinutes, flightMinutes, backwardSegments,
+                earliestDeparture != null ? earliestDeparture.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE,
+                earliestDeparture != null ? earliestDeparture.getNano() : 0,
+                latestArrival != null ? latestArrival.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE,
+                latestArrival != null ? latestArrival.getNano() : 0);
+    }
+
+    private static long minutesBetween(LocalDateTime start, LocalDateTime end) {
+        long seconds = end.toEpochSecond(ZoneOffset.UTC) - start.toEpochSecond(ZoneOffset.UTC);
+        if (end.getNano() < start.getNano()) {
+            seconds--;
+        }
+        return seconds / 60;
+    }
+}
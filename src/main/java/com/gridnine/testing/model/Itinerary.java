@@ -0,0 +1,10 @@
+package com.gridnine.testing.model;
+
+import java.util.List;
+
+/**
+ * Canonical segment list of a {@link SegmentPool} with its stats, shared by all flights built from it.
+ * The id is dense within its pool.
+ */
+record Itinerary(SegmentPool pool, int id, List<Segment> segments, FlightStats stats) {
+}
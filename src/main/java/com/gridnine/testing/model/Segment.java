@@ -8,6 +8,8 @@ import java.util.Objects;
  * Bean that represents a flight segment.
  */
 public class Segment {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
     private final LocalDateTime departureDate;
 
     private final LocalDateTime arrivalDate;
@@ -25,11 +27,34 @@ public class Segment {
         return arrivalDate;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Segment other)) {
+            return false;
+        }
+        return departureDate.equals(other.departureDate) && arrivalDate.equals(other.arrivalDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * departureDate.hashCode() + arrivalDate.hashCode();
+    }
+
     @Override
     public String toString() {
-        DateTimeFormatter fmt =
-                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-        return '[' + departureDate.format(fmt) + '|' + arrivalDate.format(fmt)
-                + ']';
+        StringBuilder builder = new StringBuilder(34);
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    void appendTo(StringBuilder builder) {
+        builder.append('[');
+        FORMATTER.formatTo(departureDate, builder);
+        builder.append('|');
+        FORMATTER.formatTo(arrivalDate, builder);
+        builder.append(']');
     }
 }
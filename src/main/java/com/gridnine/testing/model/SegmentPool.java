@@ -0,0 +1,153 @@
+package com.gridnine.testing.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Interning pool that canonicalizes equal {@link Segment}s and shares one segment list and one
+ * {@link FlightStats} between all flights with the same itinerary. Flights built by {@link #flight} also carry
+ * their itinerary, so {@link #memoize} can evaluate a predicate once per itinerary instead of once per flight.
+ * <p>
+ * The pool keeps every canonical instance reachable; scope it to one dataset and drop it with the data.
+ * Saved memory is estimated from the shallow sizes of the duplicates that were replaced, assuming
+ * a 64-bit JVM with compressed references. Thread-safe.
+ */
+public final class SegmentPool {
+
+    /**
+     * Segment with two {@code LocalDateTime}s, each holding a {@code LocalDate} and a {@code LocalTime}.
+     */
+    static final long SEGMENT_BYTES = 24 + 2 * (24 + 24 + 24);
+    static final long STATS_BYTES = 72;
+    static final long LIST_BYTES = 32;
+    static final long LIST_ELEMENT_BYTES = 4;
+
+    private final Map<Segment, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<List<Segment>, Itinerary> itineraries = new ConcurrentHashMap<>();
+    private final AtomicInteger nextItinerary = new AtomicInteger();
+    private final LongAdder segmentRequests = new LongAdder();
+    private final LongAdder itineraryRequests = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Interning outcome: requests against unique instances and the estimated bytes no longer retained.
+     */
+    public record Report(long segments, long uniqueSegments, long itineraries, long uniqueItineraries,
+                         long bytesSaved) {
+    }
+
+    public Segment intern(Segment segment) {
+        segmentRequests.increment();
+        Segment canonical = segments.putIfAbsent(segment, segment);
+        if (canonical == null) {
+            return segment;
+        }
+        if (canonical != segment) {
+            bytesSaved.add(SEGMENT_BYTES);
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the canonical immutable list of canonical segments equal to {@code segments}.
+     */
+    public List<Segment> intern(List<Segment> segments) {
+        return itinerary(segments).segments();
+    }
+
+    /**
+     * Creates a flight over the canonical segments and stats of its itinerary.
+     */
+    public Flight flight(List<Segment> segments) {
+        return new Flight(itinerary(segments));
+    }
+
+    /**
+     * Wraps a predicate that only depends on the segments, so that it runs once per itinerary of this pool.
+     * Flights of other pools or created without a pool are evaluated directly. Results are kept by the returned
+     * predicate, create one per evaluation context, e.g. per query and current time.
+     */
+    public Predicate<Flight> memoize(Predicate<Flight> predicate) {
+        return new Memo(predicate);
+    }
+
+    public int itineraryCount() {
+        return nextItinerary.get();
+    }
+
+    public Report report() {
+        return new Report(segmentRequests.sum(), segments.size(), itineraryRequests.sum(), itineraries.size(),
+                bytesSaved.sum());
+    }
+
+    private Itinerary itinerary(List<Segment> segments) {
+        List<Segment> canonical = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            canonical.add(intern(segment));
+        }
+        itineraryRequests.increment();
+        Itinerary itinerary = itineraries.get(canonical);
+        if (itinerary == null) {
+            List<Segment> shared = List.copyOf(canonical);
+            itinerary = itineraries.computeIfAbsent(shared, key ->
+                    new Itinerary(this, nextItinerary.getAndIncrement(), key, FlightStats.of(key)));
+            if (itinerary.segments() == shared) {
+                return itinerary;
+            }
+        }
+        bytesSaved.add(LIST_BYTES + LIST_ELEMENT_BYTES * segments.size() + STATS_BYTES);
+        return itinerary;
+    }
+
+    /**
+     * Result per itinerary id: {@code 0} unknown, otherwise {@link #PASSED} or {@link #REJECTED}.
+     * Concurrent evaluations of one itinerary store the same value, so unsynchronized access is benign.
+     */
+    private final class Memo implements Predicate<Flight> {
+
+        private static final byte PASSED = 1;
+        private static final byte REJECTED = 2;
+
+        private final Predicate<Flight> predicate;
+        private volatile byte[] results = new byte[Math.max(16, nextItinerary.get())];
+
+        Memo(Predicate<Flight> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(Flight flight) {
+            Itinerary itinerary = flight.itinerary();
+            if (itinerary == null || itinerary.pool() != SegmentPool.this) {
+                return predicate.test(flight);
+            }
+            int id = itinerary.id();
+            byte[] current = results;
+            if (id >= current.length) {
+                current = grow(id);
+            }
+            byte result = current[id];
+            if (result == 0) {
+                result = predicate.test(flight) ? PASSED : REJECTED;
+                current[id] = result;
+            }
+            return result == PASSED;
+        }
+
+        private synchronized byte[] grow(int id) {
+            byte[] current = results;
+            if (id >= current.length) {
+                byte[] grown = new byte[Math.max(id + 1, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                results = grown;
+                current = grown;
+            }
+            return current;
+        }
+    }
+}
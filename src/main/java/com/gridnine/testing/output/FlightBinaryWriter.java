@@ -0,0 +1,71 @@
+package com.gridnine.testing.output;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Binary result stream in the byte order of the buffer, big-endian by default so that
+ * {@link java.io.DataInputStream} reads it back:
+ * <pre>
+ * flight      segment count (int), then per segment departure and arrival
+ * timestamp   UTC epoch second (long), nano (int)
+ * end         -1 (int)
+ * </pre>
+ * Timestamps are lossless, unlike the minute resolution of the JSON form.
+ */
+public final class FlightBinaryWriter extends FlightResultWriter {
+
+    public static final int END = -1;
+
+    private static final int SEGMENT_BYTES = 2 * (Long.BYTES + Integer.BYTES);
+
+    public FlightBinaryWriter(ByteBuffer buffer) {
+        super(buffer, null);
+    }
+
+    public FlightBinaryWriter(ByteBuffer buffer, WritableByteChannel channel) {
+        super(buffer, channel);
+    }
+
+    @Override
+    public FlightBinaryWriter writeAll(List<Flight> flights) throws IOException {
+        super.writeAll(flights);
+        return this;
+    }
+
+    @Override
+    public FlightBinaryWriter write(Flight flight) throws IOException {
+        List<Segment> segments = flight.getSegments();
+        ensure(Integer.BYTES);
+        buffer.putInt(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            ensure(SEGMENT_BYTES);
+            timestamp(segment.getDepartureDate());
+            timestamp(segment.getArrivalDate());
+        }
+        countFlight();
+        return this;
+    }
+
+    /**
+     * Terminates the stream; the reader stops at the end marker instead of needing the count up front.
+     */
+    public FlightBinaryWriter end() throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(END);
+        return this;
+    }
+
+    private void timestamp(LocalDateTime dateTime) {
+        buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateTime.getNano());
+    }
+}
@@ -0,0 +1,148 @@
+package com.gridnine.testing.output;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compact JSON in the ingest layout, {@code [{"segments":[{"departure":"2024-03-01T10:00","arrival":...}]}]},
+ * with timestamps formatted digit by digit as {@code yyyy-MM-dd'T'HH:mm}. Flights written between
+ * {@link #beginArray} and {@link #endArray} are separated by commas; {@link #ascii} and {@link #number}
+ * write an enclosing document around the array.
+ */
+public final class FlightJsonWriter extends FlightResultWriter {
+
+    private static final int TIMESTAMP_BYTES = 16;
+    private static final byte[] FLIGHT_START = bytes("{\"segments\":[");
+    private static final byte[] DEPARTURE = bytes("{\"departure\":\"");
+    private static final byte[] ARRIVAL = bytes("\",\"arrival\":\"");
+    private static final byte[] SEGMENT_END = bytes("\"}");
+    private static final byte[] FLIGHT_END = bytes("]}");
+    private static final int SEGMENT_BYTES = 1 + DEPARTURE.length + TIMESTAMP_BYTES + ARRIVAL.length
+            + TIMESTAMP_BYTES + SEGMENT_END.length;
+
+    private final byte[] digits = new byte[20];
+    private boolean first = true;
+
+    public FlightJsonWriter(ByteBuffer buffer) {
+        super(buffer, null);
+    }
+
+    public FlightJsonWriter(ByteBuffer buffer, WritableByteChannel channel) {
+        super(buffer, channel);
+    }
+
+    public FlightJsonWriter beginArray() throws IOException {
+        ensure(1);
+        buffer.put((byte) '[');
+        first = true;
+        return this;
+    }
+
+    public FlightJsonWriter endArray() throws IOException {
+        ensure(1);
+        buffer.put((byte) ']');
+        return this;
+    }
+
+    @Override
+    public FlightJsonWriter writeAll(List<Flight> flights) throws IOException {
+        super.writeAll(flights);
+        return this;
+    }
+
+    @Override
+    public FlightJsonWriter write(Flight flight) throws IOException {
+        ensure(1 + FLIGHT_START.length);
+        if (!first) {
+            buffer.put((byte) ',');
+        }
+        first = false;
+        buffer.put(FLIGHT_START);
+        List<Segment> segments = flight.getSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            ensure(SEGMENT_BYTES);
+            if (i > 0) {
+                buffer.put((byte) ',');
+            }
+            buffer.put(DEPARTURE);
+            timestamp(segment.getDepartureDate());
+            buffer.put(ARRIVAL);
+            timestamp(segment.getArrivalDate());
+            buffer.put(SEGMENT_END);
+        }
+        ensure(FLIGHT_END.length);
+        buffer.put(FLIGHT_END);
+        countFlight();
+        return this;
+    }
+
+    /**
+     * Writes characters that are known to be ASCII, e.g. keys and punctuation of an enclosing object.
+     */
+    public FlightJsonWriter ascii(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            ensure(1);
+            buffer.put((byte) text.charAt(i));
+        }
+        return this;
+    }
+
+    public FlightJsonWriter number(long value) throws IOException {
+        ensure(digits.length);
+        if (value == Long.MIN_VALUE) {
+            return ascii("-9223372036854775808");
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        buffer.put(digits, start, digits.length - start);
+        return this;
+    }
+
+    private void timestamp(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("year outside of yyyy: " + dateTime);
+        }
+        put4(year);
+        buffer.put((byte) '-');
+        put2(dateTime.getMonthValue());
+        buffer.put((byte) '-');
+        put2(dateTime.getDayOfMonth());
+        buffer.put((byte) 'T');
+        put2(dateTime.getHour());
+        buffer.put((byte) ':');
+        put2(dateTime.getMinute());
+    }
+
+    private void put4(int value) {
+        put2(value / 100);
+        put2(value % 100);
+    }
+
+    private void put2(int value) {
+        buffer.put((byte) ('0' + value / 10));
+        buffer.put((byte) ('0' + value % 10));
+    }
+
+    private static byte[] bytes(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.gridnine.testing.output;
+
+import com.gridnine.testing.model.Flight;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Streams flights into a caller-owned {@link ByteBuffer}. With a channel the buffer is drained into it
+ * whenever it fills up, so results of any size pass through a buffer of fixed size; without one the buffer
+ * holds the whole output and overflowing it fails with a {@link BufferOverflowException}.
+ * Writing allocates nothing, so one buffer can be reused across results. Instances are not thread-safe.
+ */
+public abstract class FlightResultWriter {
+
+    protected final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private long flights;
+
+    protected FlightResultWriter(ByteBuffer buffer, WritableByteChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+    }
+
+    public abstract FlightResultWriter write(Flight flight) throws IOException;
+
+    public FlightResultWriter writeAll(List<Flight> flights) throws IOException {
+        for (int i = 0; i < flights.size(); i++) {
+            write(flights.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * Number of flights written so far.
+     */
+    public long flights() {
+        return flights;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Drains the buffer into the channel; without a channel the written bytes stay in the buffer.
+     */
+    public void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    protected void countFlight() {
+        flights++;
+    }
+
+    /**
+     * Makes room for {@code bytes} more bytes, flushing to the channel when needed.
+     */
+    protected void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new BufferOverflowException();
+            }
+        }
+    }
+}
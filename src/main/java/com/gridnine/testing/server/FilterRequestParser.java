@@ -0,0 +1,224 @@
+package com.gridnine.testing.server;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.util.DateTimeParser;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads {@link FlightFilterRequest} criteria from URL query parameters or from a flat JSON object with the
+ * same keys, e.g. {@code afterDeparture=2024-03-01T10:00&maxGroundTime=02:00&maxStops=1}.
+ * Dates use {@code yyyy-MM-dd'T'HH:mm}, durations {@code hh:mm} or ISO-8601 ({@code PT2H}), stops integers.
+ * Malformed input and unknown keys are rejected with an {@link IllegalArgumentException}.
+ */
+public final class FilterRequestParser {
+
+    /**
+     * Keys that are accepted next to the criteria but do not belong to the request.
+     */
+    public static final Set<String> OPTIONS = Set.of("limit");
+
+    private FilterRequestParser() {
+    }
+
+    /**
+     * Decodes a raw query string into its parameters; a repeated key keeps its last value.
+     */
+    public static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers or {@code null} into key-value pairs.
+     */
+    public static Map<String, String> parseJson(String json) {
+        JsonCursor cursor = new JsonCursor(json);
+        Map<String, String> values = new LinkedHashMap<>();
+        cursor.expect('{');
+        if (cursor.peek() == '}') {
+            cursor.next();
+        } else {
+            do {
+                String key = cursor.string();
+                cursor.expect(':');
+                String value = cursor.value();
+                if (value != null) {
+                    values.put(key, value);
+                }
+            } while (cursor.nextInObject());
+        }
+        if (cursor.peek() != JsonCursor.END) {
+            throw new IllegalArgumentException("unexpected content after the JSON object");
+        }
+        return values;
+    }
+
+    public static FlightFilterRequest toRequest(Map<String, String> parameters) {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        parameters.forEach((key, value) -> {
+            if (!OPTIONS.contains(key)) {
+                apply(filterRequest, key, value);
+            }
+        });
+        return filterRequest;
+    }
+
+    private static void apply(FlightFilterRequest filterRequest, String key, String value) {
+        try {
+            switch (key) {
+                case "beforeDeparture" -> filterRequest.setBeforeDeparture(DateTimeParser.parse(value));
+                case "afterDeparture" -> filterRequest.setAfterDeparture(DateTimeParser.parse(value));
+                case "beforeArrival" -> filterRequest.setBeforeArrival(DateTimeParser.parse(value));
+                case "afterArrival" -> filterRequest.setAfterArrival(DateTimeParser.parse(value));
+                case "maxGroundTime" -> filterRequest.setMaxGroundTime(duration(value));
+                case "minGroundTime" -> filterRequest.setMinGroundTime(duration(value));
+                case "maxAirDuration" -> filterRequest.setMaxAirDuration(duration(value));
+                case "minAirDuration" -> filterRequest.setMinAirDuration(duration(value));
+                case "maxFlightDuration" -> filterRequest.setMaxFlightDuration(duration(value));
+                case "minFlightDuration" -> filterRequest.setMinFlightDuration(duration(value));
+                case "maxStops" -> filterRequest.setMaxStops(Integer.parseInt(value));
+                case "minStops" -> filterRequest.setMinStops(Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("unknown criterion: " + key);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value of " + key + ": " + value, e);
+        }
+    }
+
+    private static Duration duration(String value) {
+        if (value.startsWith("P")) {
+            return Duration.parse(value);
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new NumberFormatException("expected hh:mm or ISO-8601");
+        }
+        return Duration.ofHours(Long.parseLong(value.substring(0, separator)))
+                .plusMinutes(Long.parseLong(value.substring(separator + 1)));
+    }
+
+    /**
+     * Minimal JSON tokenizer for a single flat object.
+     */
+    private static final class JsonCursor {
+
+        static final char END = '\0';
+
+        private final String json;
+        private int position;
+
+        JsonCursor(String json) {
+            this.json = json;
+        }
+
+        char peek() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+            return position < json.length() ? json.charAt(position) : END;
+        }
+
+        char next() {
+            char c = peek();
+            if (c == END) {
+                throw new IllegalArgumentException("unexpected end of JSON");
+            }
+            position++;
+            return c;
+        }
+
+        void expect(char expected) {
+            char c = next();
+            if (c != expected) {
+                throw new IllegalArgumentException("expected '" + expected + "' at " + (position - 1) + " but found '" + c + "'");
+            }
+        }
+
+        boolean nextInObject() {
+            char c = next();
+            if (c == ',') {
+                return true;
+            }
+            if (c == '}') {
+                return false;
+            }
+            throw new IllegalArgumentException("expected ',' or '}' at " + (position - 1));
+        }
+
+        String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            int start = position;
+            while (position < json.length() && ",} \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = json.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || !literal.matches("-?\\d+")) {
+                throw new IllegalArgumentException("unsupported JSON value at " + start + ": " + literal);
+            }
+            return literal;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= json.length()) {
+                    throw new IllegalArgumentException("unterminated JSON string");
+                }
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    if (position >= json.length()) {
+                        throw new IllegalArgumentException("unterminated JSON string");
+                    }
+                    char escaped = json.charAt(position++);
+                    switch (escaped) {
+                        case '"', '\\', '/' -> value.append(escaped);
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            if (position + 4 > json.length()) {
+                                throw new IllegalArgumentException("truncated unicode escape");
+                            }
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        default -> throw new IllegalArgumentException("invalid escape \\" + escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+    }
+}
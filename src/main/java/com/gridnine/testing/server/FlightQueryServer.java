@@ -0,0 +1,165 @@
+package com.gridnine.testing.server;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.output.FlightJsonWriter;
+import com.gridnine.testing.service.FlightFilterService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * HTTP front end of a {@link FlightFilterService} over a dataset loaded once.
+ * {@code GET /flights?<criteria>} and {@code POST /flights} with a JSON object of criteria, see
+ * {@link FilterRequestParser}, answer {@code {"count": n, "flights": [...]}} in the ingest JSON layout;
+ * the optional {@code limit} parameter caps the listed flights, not the count. Results are streamed chunked
+ * through a {@link FlightJsonWriter} and a reusable buffer of the handling thread.
+ * Exchanges run on the given executor, the JDK server keeps HTTP/1.1 connections alive between requests.
+ */
+public final class FlightQueryServer implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(FlightQueryServer.class.getName());
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int RESPONSE_BUFFER_BYTES = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(RESPONSE_BUFFER_BYTES));
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final FlightFilterService service;
+    private final List<Flight> flights;
+
+    private FlightQueryServer(HttpServer server, ExecutorService executor, FlightFilterService service,
+                              List<Flight> flights) {
+        this.server = server;
+        this.executor = executor;
+        this.service = service;
+        this.flights = flights;
+    }
+
+    /**
+     * Binds and starts the server; {@code executor} runs the exchanges and is shut down by {@link #close}.
+     */
+    public static FlightQueryServer start(InetSocketAddress address, int backlog, ExecutorService executor,
+                                          FlightFilterService service, List<Flight> flights) throws IOException {
+        HttpServer httpServer = HttpServer.create(address, backlog);
+        FlightQueryServer server = new FlightQueryServer(httpServer, executor, service, List.copyOf(flights));
+        httpServer.createContext("/flights", server::handleFlights);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return server;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleFlights(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                send(exchange, 405, error("method not allowed"));
+                return;
+            }
+
+            FlightFilterRequest filterRequest;
+            int limit;
+            try {
+                Map<String, String> parameters = FilterRequestParser.parseQuery(exchange.getRequestURI().getRawQuery());
+                String body = readBody(exchange.getRequestBody());
+                if (method.equals("POST") && !body.isBlank()) {
+                    parameters.putAll(FilterRequestParser.parseJson(body));
+                }
+                filterRequest = FilterRequestParser.toRequest(parameters);
+                limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : Integer.MAX_VALUE;
+                if (limit < 0) {
+                    throw new IllegalArgumentException("limit must not be negative");
+                }
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+                return;
+            }
+
+            List<Flight> result;
+            try {
+                result = service.applyFilter(flights, filterRequest);
+            } catch (RuntimeException e) {
+                logger.warning("Ошибка обработки запроса " + exchange.getRequestURI() + ": " + e.getMessage());
+                send(exchange, 500, error("internal error"));
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                writeJson(new FlightJsonWriter(BUFFERS.get().clear(), Channels.newChannel(out)), result, limit);
+            }
+        }
+    }
+
+    /**
+     * Streams {@code {"count": n, "flights": [...]}} with at most {@code limit} flights listed.
+     */
+    static void writeJson(FlightJsonWriter writer, List<Flight> flights, int limit) throws IOException {
+        writer.ascii("{\"count\":").number(flights.size()).ascii(",\"flights\":").beginArray();
+        for (int i = 0; i < flights.size() && i < limit; i++) {
+            writer.write(flights.get(i));
+        }
+        writer.endArray().ascii("}").flush();
+    }
+
+    private static String readBody(InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":\"");
+        for (char c : String.valueOf(message).toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append("\"}").toString();
+    }
+}
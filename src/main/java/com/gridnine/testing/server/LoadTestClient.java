@@ -0,0 +1,85 @@
+package com.gridnine.testing.server;
+
+import com.gridnine.testing.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for the {@link FlightQueryServer}: {@code concurrency} threads each send
+ * {@code requests} GET requests back to back over a shared keep-alive client and the latency of every
+ * response is recorded.
+ * <p>
+ * Run as {@code java -cp ... com.gridnine.testing.server.LoadTestClient <uri> [concurrency] [requests]}.
+ */
+public final class LoadTestClient {
+
+    private LoadTestClient() {
+    }
+
+    /**
+     * Outcome of a run; a response other than {@code 200} counts as an error.
+     */
+    public record Result(long requests, long errors, long elapsedNanos, long p50Nanos, long p99Nanos) {
+
+        public double requestsPerSecond() {
+            return elapsedNanos > 0 ? requests * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    public static Result run(URI uri, int concurrency, int requestsPerThread) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+
+        List<Thread> threads = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int t = 0; t < concurrency; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < requestsPerThread; i++) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.increment();
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latency.record(System.nanoTime() - sent);
+                }
+            }, "load-test-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(latency.count(), errors.sum(), elapsed, latency.percentile(0.5), latency.percentile(0.99));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Использование: LoadTestClient <uri> [потоков] [запросов на поток]");
+            return;
+        }
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        Result result = run(URI.create(args[0]), concurrency, requests);
+        System.out.format("Запросов: %d, ошибок: %d, за %.2f с%n", result.requests(), result.errors(),
+                result.elapsedNanos() / 1e9);
+        System.out.format("Пропускная способность: %.1f запросов/с%n", result.requestsPerSecond());
+        System.out.format("Задержка p50: %.3f мс, p99: %.3f мс%n", result.p50Nanos() / 1e6, result.p99Nanos() / 1e6);
+    }
+}
@@ -1,19 +1,70 @@
 package com.gridnine.testing.service;
 
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
 import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.HistogramSpec;
 import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.store.PartitionedFlightStore;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 public interface FlightFilterService {
 
     List<Flight> filterFromCurrentTime(List<Flight> flights);
 
+    /**
+     * Same as {@link #filterFromCurrentTime(List)} as of the store's clock: fully departed partitions are taken
+     * without checking single flights and partitions that start later are skipped.
+     * Flights dropped by {@link PartitionedFlightStore#retireDeparted()} are not returned; retiring is left
+     * to the owner of the store, a filter call never removes flights.
+     */
+    List<Flight> filterFromCurrentTime(PartitionedFlightStore store);
+
     List<Flight> filterArrivalBeforeDeparture(List<Flight> flights);
 
     List<Flight> filterMoreThanTwoHoursGroundTime(List<Flight> flights);
 
     List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest);
 
+    List<Flight> applyFilter(FlightStore store, FlightFilterRequest filterRequest);
+
+    /**
+     * Explain mode: filters sequentially with every criterion timed and counted, and returns these numbers
+     * together with the result.
+     */
+    FilterProfile profile(List<Flight> flights, FlightFilterRequest filterRequest);
+
+    /**
+     * Evaluates many requests in one shared pass over the flights; results are in request order.
+     */
+    List<List<Flight>> applyFilters(List<Flight> flights, List<FlightFilterRequest> filterRequests);
+
+    /**
+     * Returns one page of the matching flights ordered by the requested key, without sorting all matches.
+     */
+    FlightPage applyFilter(List<Flight> flights, FlightFilterRequest filterRequest, FlightPageRequest pageRequest);
+
+    FlightPage applyFilter(FlightStore store, FlightFilterRequest filterRequest, FlightPageRequest pageRequest);
+
+    /**
+     * Counts and summarizes the matching flights in a single pass, without building a result list.
+     */
+    FlightAggregates aggregate(List<Flight> flights, FlightFilterRequest filterRequest, List<HistogramSpec> histograms);
+
+    FlightAggregates aggregate(FlightStore store, FlightFilterRequest filterRequest, List<HistogramSpec> histograms);
+
+    Stream<Flight> applyFilter(Stream<Flight> flights, FlightFilterRequest filterRequest);
+
+    Iterator<Flight> applyFilter(Iterator<Flight> flights, FlightFilterRequest filterRequest);
+
+    Flow.Publisher<Flight> applyFilter(Flow.Publisher<Flight> flights, FlightFilterRequest filterRequest);
+
     void resetFilters(FlightFilterRequest filterRequest);
 }
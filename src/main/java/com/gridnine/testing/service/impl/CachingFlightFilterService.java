@@ -0,0 +1,263 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.store.PartitionedFlightStore;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that caches {@code applyFilter} results for lists and stores.
+ * Entries are keyed by the normalized {@link FlightFilterCriteria}, the identity of the dataset and a dataset
+ * version stamp; call {@link #invalidate()} after changing a dataset in place.
+ * Least recently used entries are evicted when either the entry or the cached flight limit is exceeded.
+ * Cached results are returned as shared unmodifiable lists; results larger than the cached flight limit
+ * are returned as the delegate produced them, without a copy.
+ * Entries hold a strong reference to their dataset, so a replaced list or store stays reachable
+ * until its entries are evicted or {@link #invalidate()} is called.
+ */
+public class CachingFlightFilterService implements FlightFilterService {
+
+    /**
+     * Cache counters; {@code flights} is the total size of the cached results.
+     */
+    public record CacheStats(long hits, long misses, long evictions, int entries, long flights) {
+    }
+
+    private final FlightFilterService delegate;
+    private final int maxEntries;
+    private final long maxFlights;
+    private final LinkedHashMap<CacheKey, List<Flight>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong version = new AtomicLong();
+    private long cachedFlights;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries maximum number of cached results, at least one
+     * @param maxFlights maximum total size of the cached results; {@code 0} caches empty results only
+     */
+    public CachingFlightFilterService(FlightFilterService delegate, int maxEntries, long maxFlights) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("max entries must be positive");
+        }
+        if (maxFlights < 0) {
+            throw new IllegalArgumentException("max flights must not be negative");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxFlights = maxFlights;
+    }
+
+    /**
+     * Advances the dataset version stamp, so that every cached result becomes stale.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        synchronized (this) {
+            evictions += entries.size();
+            entries.clear();
+            cachedFlights = 0;
+        }
+    }
+
+    public long datasetVersion() {
+        return version.get();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), cachedFlights);
+    }
+
+    @Override
+    public List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest) {
+        return cached(flights, filterRequest, () -> delegate.applyFilter(flights, filterRequest));
+    }
+
+    @Override
+    public List<Flight> applyFilter(FlightStore store, FlightFilterRequest filterRequest) {
+        return cached(store, filterRequest, () -> delegate.applyFilter(store, filterRequest));
+    }
+
+    /**
+     * Profiles are never cached, they describe the evaluation itself.
+     */
+    @Override
+    public FilterProfile profile(List<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.profile(flights, filterRequest);
+    }
+
+    /**
+     * Serves cached requests directly and evaluates the remaining ones in a single batch of the delegate.
+     */
+    @Override
+    public List<List<Flight>> applyFilters(List<Flight> flights, List<FlightFilterRequest> filterRequests) {
+        long currentVersion = version.get();
+        List<List<Flight>> results = new ArrayList<>(filterRequests.size());
+        List<CacheKey> missedKeys = new ArrayList<>();
+        List<FlightFilterRequest> missedRequests = new ArrayList<>();
+        List<Integer> missedPositions = new ArrayList<>();
+        synchronized (this) {
+            for (FlightFilterRequest filterRequest : filterRequests) {
+                CacheKey key = new CacheKey(FlightFilterCriteria.of(filterRequest), flights, currentVersion);
+                List<Flight> result = entries.get(key);
+                if (result != null) {
+                    hits++;
+                } else {
+                    misses++;
+                    missedKeys.add(key);
+                    missedRequests.add(filterRequest);
+                    missedPositions.add(results.size());
+                }
+                results.add(result);
+            }
+        }
+        if (missedRequests.isEmpty()) {
+            return results;
+        }
+
+        List<List<Flight>> computed = delegate.applyFilters(flights, missedRequests);
+        for (int i = 0; i < computed.size(); i++) {
+            List<Flight> result = cacheable(computed.get(i));
+            results.set(missedPositions.get(i), result);
+            store(missedKeys.get(i), result);
+        }
+        return results;
+    }
+
+    private List<Flight> cached(Object dataset, FlightFilterRequest filterRequest, Supplier<List<Flight>> query) {
+        CacheKey key = new CacheKey(FlightFilterCriteria.of(filterRequest), dataset, version.get());
+        synchronized (this) {
+            List<Flight> result = entries.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+            misses++;
+        }
+
+        List<Flight> result = cacheable(query.get());
+        store(key, result);
+        return result;
+    }
+
+    /**
+     * Copies a result that fits the cached flight limit, a larger one is returned unchanged.
+     */
+    private List<Flight> cacheable(List<Flight> result) {
+        return result.size() <= maxFlights ? List.copyOf(result) : result;
+    }
+
+    private synchronized void store(CacheKey key, List<Flight> result) {
+        if (key.version() == version.get() && result.size() <= maxFlights && !entries.containsKey(key)) {
+            entries.put(key, result);
+            cachedFlights += result.size();
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<CacheKey, List<Flight>>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || cachedFlights > maxFlights) && iterator.hasNext()) {
+            cachedFlights -= iterator.next().getValue().size();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public FlightPage applyFilter(List<Flight> flights, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        return delegate.applyFilter(flights, filterRequest, pageRequest);
+    }
+
+    @Override
+    public FlightPage applyFilter(FlightStore store, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        return delegate.applyFilter(store, filterRequest, pageRequest);
+    }
+
+    @Override
+    public FlightAggregates aggregate(List<Flight> flights, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        return delegate.aggregate(flights, filterRequest, histograms);
+    }
+
+    @Override
+    public FlightAggregates aggregate(FlightStore store, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        return delegate.aggregate(store, filterRequest, histograms);
+    }
+
+    @Override
+    public Stream<Flight> applyFilter(Stream<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Iterator<Flight> applyFilter(Iterator<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Flow.Publisher<Flight> applyFilter(Flow.Publisher<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(List<Flight> flights) {
+        return delegate.filterFromCurrentTime(flights);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(PartitionedFlightStore store) {
+        return delegate.filterFromCurrentTime(store);
+    }
+
+    @Override
+    public List<Flight> filterArrivalBeforeDeparture(List<Flight> flights) {
+        return delegate.filterArrivalBeforeDeparture(flights);
+    }
+
+    @Override
+    public List<Flight> filterMoreThanTwoHoursGroundTime(List<Flight> flights) {
+        return delegate.filterMoreThanTwoHoursGroundTime(flights);
+    }
+
+    @Override
+    public void resetFilters(FlightFilterRequest filterRequest) {
+        delegate.resetFilters(filterRequest);
+    }
+
+    /**
+     * Compares datasets by identity: lists are never compared element by element.
+     */
+    private record CacheKey(FlightFilterCriteria criteria, Object dataset, long version) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CacheKey other
+                    && dataset == other.dataset && version == other.version && criteria.equals(other.criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * criteria.hashCode() + System.identityHashCode(dataset)) + Long.hashCode(version);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join filtering over fixed-size chunks of a flight list.
+ * Every chunk gets its own predicate instance and result list, chunk results are concatenated in input order.
+ */
+final class ChunkedFilterTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Flight> flights;
+    private final Supplier<Predicate<Flight>> predicateFactory;
+    private final List<Flight>[] results;
+    private final int chunkSize;
+    private final int fromChunk;
+    private final int toChunk;
+
+    private ChunkedFilterTask(List<Flight> flights, Supplier<Predicate<Flight>> predicateFactory,
+                              List<Flight>[] results, int chunkSize, int fromChunk, int toChunk) {
+        this.flights = flights;
+        this.predicateFactory = predicateFactory;
+        this.results = results;
+        this.chunkSize = chunkSize;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static List<Flight> filter(ForkJoinPool pool, List<Flight> flights,
+                               Supplier<Predicate<Flight>> predicateFactory, int chunkSize) {
+        int chunks = (flights.size() + chunkSize - 1) / chunkSize;
+        List<Flight>[] results = new List[chunks];
+        pool.invoke(new ChunkedFilterTask(flights, predicateFactory, results, chunkSize, 0, chunks));
+
+        int size = 0;
+        for (List<Flight> chunk : results) {
+            size += chunk.size();
+        }
+        List<Flight> merged = new ArrayList<>(size);
+        for (List<Flight> chunk : results) {
+            merged.addAll(chunk);
+        }
+        return merged;
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk > 1) {
+            int mid = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunkedFilterTask(flights, predicateFactory, results, chunkSize, fromChunk, mid),
+                    new ChunkedFilterTask(flights, predicateFactory, results, chunkSize, mid, toChunk));
+            return;
+        }
+
+        Predicate<Flight> predicate = predicateFactory.get();
+        int from = fromChunk * chunkSize;
+        int to = Math.min(from + chunkSize, flights.size());
+        List<Flight> matches = new ArrayList<>();
+        for (Flight flight : flights.subList(from, to)) {
+            if (predicate.test(flight)) {
+                matches.add(flight);
+            }
+        }
+        results[fromChunk] = matches;
+    }
+}
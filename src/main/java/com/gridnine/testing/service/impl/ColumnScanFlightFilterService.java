@@ -0,0 +1,136 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.store.ColumnKernel;
+import com.gridnine.testing.store.ColumnKernels;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.store.FlightStoreQuery;
+import com.gridnine.testing.store.PartitionedFlightStore;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that filters stores by a full scan of per-flight columns with a {@link ColumnKernel}
+ * instead of the index-driven {@link FlightStore#select}. Pays off for broad queries the indexes cannot narrow.
+ * All other operations are delegated.
+ */
+public class ColumnScanFlightFilterService implements FlightFilterService {
+
+    private final FlightFilterService delegate;
+    private final ColumnKernel kernel;
+
+    /**
+     * Uses the vector kernel when the {@code jdk.incubator.vector} module is enabled, the scalar one otherwise.
+     */
+    public ColumnScanFlightFilterService(FlightFilterService delegate) {
+        this(delegate, ColumnKernels.best());
+    }
+
+    public ColumnScanFlightFilterService(FlightFilterService delegate, ColumnKernel kernel) {
+        this.delegate = delegate;
+        this.kernel = kernel;
+    }
+
+    public ColumnKernel kernel() {
+        return kernel;
+    }
+
+    @Override
+    public List<Flight> applyFilter(FlightStore store, FlightFilterRequest filterRequest) {
+        int[] matches = store.scan(FlightStoreQuery.of(filterRequest), kernel);
+        List<Flight> result = new ArrayList<>(matches.length);
+        for (int flight : matches) {
+            result.add(store.getFlight(flight));
+        }
+        return result;
+    }
+
+    @Override
+    public FlightPage applyFilter(FlightStore store, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        int[] matches = store.scan(FlightStoreQuery.of(filterRequest), kernel);
+        return FlightFilterServiceImpl.toPage(store, store.page(matches, pageRequest), pageRequest);
+    }
+
+    @Override
+    public FlightPage applyFilter(List<Flight> flights, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        return delegate.applyFilter(flights, filterRequest, pageRequest);
+    }
+
+    @Override
+    public FilterProfile profile(List<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.profile(flights, filterRequest);
+    }
+
+    @Override
+    public List<List<Flight>> applyFilters(List<Flight> flights, List<FlightFilterRequest> filterRequests) {
+        return delegate.applyFilters(flights, filterRequests);
+    }
+
+    @Override
+    public List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public FlightAggregates aggregate(List<Flight> flights, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        return delegate.aggregate(flights, filterRequest, histograms);
+    }
+
+    @Override
+    public FlightAggregates aggregate(FlightStore store, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        return delegate.aggregate(store, filterRequest, histograms);
+    }
+
+    @Override
+    public Stream<Flight> applyFilter(Stream<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Iterator<Flight> applyFilter(Iterator<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public Flow.Publisher<Flight> applyFilter(Flow.Publisher<Flight> flights, FlightFilterRequest filterRequest) {
+        return delegate.applyFilter(flights, filterRequest);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(List<Flight> flights) {
+        return delegate.filterFromCurrentTime(flights);
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(PartitionedFlightStore store) {
+        return delegate.filterFromCurrentTime(store);
+    }
+
+    @Override
+    public List<Flight> filterArrivalBeforeDeparture(List<Flight> flights) {
+        return delegate.filterArrivalBeforeDeparture(flights);
+    }
+
+    @Override
+    public List<Flight> filterMoreThanTwoHoursGroundTime(List<Flight> flights) {
+        return delegate.filterMoreThanTwoHoursGroundTime(flights);
+    }
+
+    @Override
+    public void resetFilters(FlightFilterRequest filterRequest) {
+        delegate.resetFilters(filterRequest);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Lazily filters a source iterator, holding at most one matched flight ahead.
+ */
+final class FilteringIterator implements Iterator<Flight> {
+
+    private final Iterator<Flight> source;
+    private final Predicate<Flight> predicate;
+    private Flight next;
+
+    FilteringIterator(Iterator<Flight> source, Predicate<Flight> predicate) {
+        this.source = source;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && source.hasNext()) {
+            Flight flight = source.next();
+            if (predicate.test(flight)) {
+                next = flight;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Flight next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Flight flight = next;
+        next = null;
+        return flight;
+    }
+}
@@ -0,0 +1,94 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.concurrent.Flow;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Publisher of the flights of an upstream publisher that match a predicate.
+ * Downstream demand is forwarded upstream as is, every rejected flight is replaced by requesting one more,
+ * so nothing is buffered and backpressure is preserved.
+ */
+final class FilteringPublisher implements Flow.Publisher<Flight> {
+
+    private final Flow.Publisher<Flight> upstream;
+    private final Supplier<Predicate<Flight>> predicateFactory;
+
+    FilteringPublisher(Flow.Publisher<Flight> upstream, Supplier<Predicate<Flight>> predicateFactory) {
+        this.upstream = upstream;
+        this.predicateFactory = predicateFactory;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Flight> subscriber) {
+        upstream.subscribe(new FilteringSubscriber(subscriber, predicateFactory.get()));
+    }
+
+    private static final class FilteringSubscriber implements Flow.Subscriber<Flight>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super Flight> downstream;
+        private final Predicate<Flight> predicate;
+        private Flow.Subscription subscription;
+        private boolean done;
+
+        private FilteringSubscriber(Flow.Subscriber<? super Flight> downstream, Predicate<Flight> predicate) {
+            this.downstream = downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(Flight flight) {
+            if (done) {
+                return;
+            }
+            boolean matches;
+            try {
+                matches = predicate.test(flight);
+            } catch (RuntimeException e) {
+                done = true;
+                subscription.cancel();
+                downstream.onError(e);
+                return;
+            }
+            if (matches) {
+                downstream.onNext(flight);
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!done) {
+                done = true;
+                downstream.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            subscription.cancel();
+        }
+    }
+}
@@ -1,177 +1,352 @@
 package com.gridnine.testing.service.impl;
 
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.FlightCursor;
 import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.metrics.FilterMetrics;
+import com.gridnine.testing.metrics.PredicateMetrics;
 import com.gridnine.testing.model.Flight;
-import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.model.FlightStats;
 import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.store.FlightStore;
+import com.gridnine.testing.store.FlightStoreQuery;
+import com.gridnine.testing.store.PartitionedFlightStore;
+import com.gridnine.testing.util.CompiledFlightQuery;
+import com.gridnine.testing.util.FlightAggregator;
 import com.gridnine.testing.util.FlightPredicate;
+import com.gridnine.testing.util.FlightPredicateChain;
+import com.gridnine.testing.util.TopKHeap;
 
 import java.lang.reflect.Field;
-import java.time.Duration;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class FlightFilterServiceImpl implements FlightFilterService {
 
     private static final Logger logger = Logger.getLogger(FlightFilterServiceImpl.class.getName());
 
-    private List<Flight> filter(List<Flight> flights, List<FlightPredicate> filters) {
-        Predicate<Flight> combinedFilter = filters.stream()
-                .map(FlightPredicate::predicate)
-                .reduce(Predicate::and)
-                .orElse(flight -> true);
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
 
-        return flights.stream()
-                .filter(combinedFilter)
-                .collect(Collectors.toList());
+    static final int CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final Clock clock;
+    private final FilterMetrics metrics;
+
+    public FlightFilterServiceImpl() {
+        this(null, Integer.MAX_VALUE);
     }
 
-    @Override
-    public List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest) {
-        List<FlightPredicate> filters = buildFilters(filterRequest);
-        return filter(flights, filters);
+    /**
+     * Creates a service that filters lists of at least {@code parallelThreshold} flights on the given pool.
+     */
+    public FlightFilterServiceImpl(ForkJoinPool pool, int parallelThreshold) {
+        this(pool, parallelThreshold, Clock.systemDefaultZone());
     }
 
-    private List<FlightPredicate> buildFilters(FlightFilterRequest filterRequest) {
-        List<FlightPredicate> filters = new ArrayList<>();
+    /**
+     * Creates a service that takes the current time of {@link #filterFromCurrentTime} from the given clock.
+     */
+    public FlightFilterServiceImpl(ForkJoinPool pool, int parallelThreshold, Clock clock) {
+        this(pool, parallelThreshold, clock, null);
+    }
 
-        if (filterRequest.getBeforeDeparture() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().stream()
-                            .anyMatch(segment -> segment.getDepartureDate().isBefore(filterRequest.getBeforeDeparture()))
-            ));
-        }
+    /**
+     * Creates a service that records filter calls and criterion evaluations in {@code metrics},
+     * {@code null} disables instrumentation.
+     */
+    public FlightFilterServiceImpl(ForkJoinPool pool, int parallelThreshold, Clock clock, FilterMetrics metrics) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.clock = clock;
+        this.metrics = metrics;
+    }
 
-        if (filterRequest.getAfterDeparture() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().stream()
-                            .allMatch(segment -> segment.getDepartureDate().isAfter(filterRequest.getAfterDeparture()))
-            ));
+    /**
+     * Plans on the plain predicates so that the planning sample is not recorded in {@code metrics}.
+     */
+    private List<Flight> filter(List<Flight> flights, List<FlightPredicate> filters, FilterMetrics metrics) {
+        if (filters.isEmpty()) {
+            return filter(flights, () -> flight -> true);
         }
-
-        if (filterRequest.getBeforeArrival() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().stream()
-                            .allMatch(segment -> segment.getArrivalDate().isBefore(filterRequest.getBeforeArrival()))
-            ));
+        FlightPredicateChain chain = FlightPredicateChain.plan(filters, flights);
+        if (metrics != null) {
+            chain = chain.map(metrics::instrument);
         }
+        return filter(flights, chain::copy);
+    }
 
-        if (filterRequest.getAfterArrival() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().stream()
-                            .anyMatch(segment -> segment.getArrivalDate().isAfter(filterRequest.getAfterArrival()))
-            ));
+    private List<Flight> filter(List<Flight> flights, Supplier<Predicate<Flight>> predicateFactory) {
+        if (pool != null && flights.size() >= parallelThreshold) {
+            return ChunkedFilterTask.filter(pool, flights, predicateFactory, CHUNK_SIZE);
         }
+        return flights.stream()
+                .filter(predicateFactory.get())
+                .collect(Collectors.toList());
+    }
 
-        if (filterRequest.getMaxGroundTime() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalGroundTime(flight) > filterRequest.getMaxGroundTime().toMinutes()
-            ));
+    /**
+     * Without metrics a query with fewer than two criteria has no order to plan and runs as the compiled query.
+     */
+    @Override
+    public List<Flight> applyFilter(List<Flight> flights, FlightFilterRequest filterRequest) {
+        CompiledFlightQuery query = CompiledFlightQuery.compile(filterRequest);
+        List<FlightPredicate> filters = query.predicates();
+        if (metrics == null) {
+            return filters.size() < 2 ? filter(flights, () -> query) : filter(flights, filters, null);
         }
+        long start = System.nanoTime();
+        List<Flight> result = filter(flights, filters, metrics);
+        metrics.recordCall(flights.size(), result.size(), System.nanoTime() - start);
+        return result;
+    }
 
-        if (filterRequest.getMinGroundTime() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalGroundTime(flight) < filterRequest.getMinGroundTime().toMinutes()
-            ));
+    /**
+     * Runs sequentially so that the reported order is the one the chain settled on;
+     * the elapsed time includes timing every evaluation but not the planning sample, which is not counted either.
+     */
+    @Override
+    public FilterProfile profile(List<Flight> flights, FlightFilterRequest filterRequest) {
+        FilterMetrics profile = new FilterMetrics("profile", 1);
+        List<FlightPredicate> order = CompiledFlightQuery.compile(filterRequest).predicates();
+        FlightPredicateChain chain = order.isEmpty()
+                ? null
+                : FlightPredicateChain.plan(order, flights).map(profile::instrument);
+        long start = System.nanoTime();
+        List<Flight> result;
+        if (chain == null) {
+            result = new ArrayList<>(flights);
+        } else {
+            result = flights.stream().filter(chain).collect(Collectors.toList());
+            order = chain.order();
         }
-
-        if (filterRequest.getMinFlightDuration() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalFlightTime(flight) < filterRequest.getMinFlightDuration().toMinutes()
-            ));
+        long elapsed = System.nanoTime() - start;
+
+        List<FilterProfile.PredicateProfile> predicates = new ArrayList<>(order.size());
+        for (FlightPredicate predicate : order) {
+            PredicateMetrics counts = profile.predicate(predicate.name());
+            predicates.add(new FilterProfile.PredicateProfile(predicate.name(),
+                    counts.getEvaluations(), counts.getPassed(), counts.getRejected(),
+                    counts.getLatencyP50Nanos(), counts.getLatencyP99Nanos()));
         }
+        return new FilterProfile(result, flights.size(), elapsed, List.copyOf(predicates));
+    }
 
-        if (filterRequest.getMaxFlightDuration() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalFlightTime(flight) > filterRequest.getMaxFlightDuration().toMinutes()
-            ));
+    @Override
+    public List<List<Flight>> applyFilters(List<Flight> flights, List<FlightFilterRequest> filterRequests) {
+        CompiledFlightQuery[] queries = filterRequests.stream()
+                .map(CompiledFlightQuery::compile)
+                .toArray(CompiledFlightQuery[]::new);
+        List<List<Flight>> results;
+        if (pool != null && flights.size() >= parallelThreshold) {
+            int chunks = (flights.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            List<List<List<Flight>>> chunkResults = pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> sharedScan(flights, chunk * CHUNK_SIZE,
+                            Math.min(flights.size(), (chunk + 1) * CHUNK_SIZE), queries))
+                    .toList()).join();
+            results = new ArrayList<>(queries.length);
+            for (int query = 0; query < queries.length; query++) {
+                List<Flight> merged = new ArrayList<>();
+                for (List<List<Flight>> chunk : chunkResults) {
+                    merged.addAll(chunk.get(query));
+                }
+                results.add(merged);
+            }
+        } else {
+            results = sharedScan(flights, 0, flights.size(), queries);
         }
+        return results;
+    }
 
-        if (filterRequest.getMinAirDuration() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalAirTime(flight) < filterRequest.getMinAirDuration().toMinutes()
-            ));
+    /**
+     * Reads every flight and its stats once and tests them against all queries.
+     */
+    private static List<List<Flight>> sharedScan(List<Flight> flights, int from, int to, CompiledFlightQuery[] queries) {
+        List<List<Flight>> results = new ArrayList<>(queries.length);
+        for (int query = 0; query < queries.length; query++) {
+            results.add(new ArrayList<>());
         }
-
-        if (filterRequest.getMaxAirDuration() != null) {
-            filters.add(new FlightPredicate(
-                    flight -> calculateTotalAirTime(flight) > filterRequest.getMaxAirDuration().toMinutes()
-            ));
+        for (int i = from; i < to; i++) {
+            Flight flight = flights.get(i);
+            FlightStats stats = flight.getStats();
+            for (int query = 0; query < queries.length; query++) {
+                if (queries[query].test(stats)) {
+                    results.get(query).add(flight);
+                }
+            }
         }
+        return results;
+    }
 
-        if (filterRequest.getMinStops() > 0) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().size() - 1 < filterRequest.getMinStops()
-            ));
+    @Override
+    public FlightPage applyFilter(List<Flight> flights, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        CompiledFlightQuery query = CompiledFlightQuery.compile(filterRequest);
+        FlightSortKey sortKey = pageRequest.sortKey();
+        boolean descending = pageRequest.descending();
+        FlightCursor after = pageRequest.after();
+        TopKHeap heap = new TopKHeap((int) Math.max(1, Math.min(pageRequest.window(), flights.size())), descending);
+
+        for (int i = 0; i < flights.size(); i++) {
+            FlightStats stats = flights.get(i).getStats();
+            if (!query.test(stats)) {
+                continue;
+            }
+            long key = sortKey.key(stats);
+            int nano = sortKey.nano(stats);
+            if (after == null || TopKHeap.isAfter(key, nano, i, after, descending)) {
+                heap.offer(key, nano, i);
+            }
         }
 
-        if (filterRequest.getMaxStops() > 0) {
-            filters.add(new FlightPredicate(
-                    flight -> flight.getSegments().size() - 1 > filterRequest.getMaxStops()
-            ));
+        int[] ordered = heap.drainSorted();
+        List<Flight> page = new ArrayList<>();
+        for (int i = pageRequest.offset(); i < ordered.length; i++) {
+            page.add(flights.get(ordered[i]));
+        }
+        FlightCursor next = null;
+        if (page.size() == pageRequest.limit()) {
+            int last = ordered[ordered.length - 1];
+            FlightStats stats = flights.get(last).getStats();
+            next = new FlightCursor(sortKey.key(stats), sortKey.nano(stats), last);
         }
+        return new FlightPage(page, next);
+    }
 
-        return filters;
+    @Override
+    public FlightPage applyFilter(FlightStore store, FlightFilterRequest filterRequest, FlightPageRequest pageRequest) {
+        return toPage(store, store.page(FlightStoreQuery.of(filterRequest), pageRequest), pageRequest);
     }
 
-    private long calculateTotalGroundTime(Flight flight) {
-        List<Segment> segments = flight.getSegments();
-        long totalGroundTime = 0;
+    /**
+     * Materializes a page of store positions, a full page gets a cursor to its last flight.
+     */
+    static FlightPage toPage(FlightStore store, int[] flights, FlightPageRequest pageRequest) {
+        List<Flight> page = new ArrayList<>(flights.length);
+        for (int flight : flights) {
+            page.add(store.getFlight(flight));
+        }
+        FlightCursor next = flights.length == pageRequest.limit()
+                ? store.cursor(flights[flights.length - 1], pageRequest.sortKey())
+                : null;
+        return new FlightPage(page, next);
+    }
 
-        for (int i = 0; i < segments.size() - 1; i++) {
-            LocalDateTime arrival = segments.get(i).getArrivalDate();
-            LocalDateTime departure = segments.get(i + 1).getDepartureDate();
-            totalGroundTime += Duration.between(arrival, departure).toMinutes();
+    @Override
+    public FlightAggregates aggregate(List<Flight> flights, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        CompiledFlightQuery query = CompiledFlightQuery.compile(filterRequest);
+        if (pool != null && flights.size() >= parallelThreshold) {
+            int chunks = (flights.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            return pool.submit(() -> IntStream.range(0, chunks).parallel()
+                            .mapToObj(chunk -> aggregate(flights, chunk * CHUNK_SIZE,
+                                    Math.min(flights.size(), (chunk + 1) * CHUNK_SIZE), query, histograms))
+                            .reduce(FlightAggregator::combine)
+                            .orElseGet(() -> new FlightAggregator(histograms)))
+                    .join()
+                    .result();
         }
+        return aggregate(flights, 0, flights.size(), query, histograms).result();
+    }
 
-        return totalGroundTime;
+    private static FlightAggregator aggregate(List<Flight> flights, int from, int to, CompiledFlightQuery query,
+                                              List<HistogramSpec> histograms) {
+        FlightAggregator aggregator = new FlightAggregator(histograms);
+        for (int i = from; i < to; i++) {
+            FlightStats stats = flights.get(i).getStats();
+            if (query.test(stats)) {
+                aggregator.accept(stats);
+            }
+        }
+        return aggregator;
     }
 
-    private long calculateTotalAirTime(Flight flight) {
-        List<Segment> segments = flight.getSegments();
-        long totalAirTime = 0;
+    @Override
+    public FlightAggregates aggregate(FlightStore store, FlightFilterRequest filterRequest,
+                                      List<HistogramSpec> histograms) {
+        FlightAggregator aggregator = new FlightAggregator(histograms);
+        store.aggregate(FlightStoreQuery.of(filterRequest), aggregator);
+        return aggregator.result();
+    }
 
-        for (Segment segment : segments) {
-            LocalDateTime departure = segment.getDepartureDate();
-            LocalDateTime arrival = segment.getArrivalDate();
-            totalAirTime += Duration.between(departure, arrival).toMinutes();
-        }
+    /**
+     * Filters with the stateless compiled query, the stream may still be made parallel downstream.
+     */
+    @Override
+    public Stream<Flight> applyFilter(Stream<Flight> flights, FlightFilterRequest filterRequest) {
+        return flights.filter(CompiledFlightQuery.compile(filterRequest));
+    }
 
-        return totalAirTime;
+    @Override
+    public Iterator<Flight> applyFilter(Iterator<Flight> flights, FlightFilterRequest filterRequest) {
+        return new FilteringIterator(flights, FlightPredicateChain.plan(CompiledFlightQuery.compile(filterRequest).predicates(), List.of()));
+    }
+
+    @Override
+    public Flow.Publisher<Flight> applyFilter(Flow.Publisher<Flight> flights, FlightFilterRequest filterRequest) {
+        FlightPredicateChain chain = FlightPredicateChain.plan(CompiledFlightQuery.compile(filterRequest).predicates(), List.of());
+        return new FilteringPublisher(flights, chain::copy);
     }
 
-    private long calculateTotalFlightTime(Flight flight) {
-        List<Segment> segments = flight.getSegments();
-        LocalDateTime firstDeparture = segments.get(0).getDepartureDate();
-        LocalDateTime lastArrival = segments.get(segments.size() - 1).getArrivalDate();
-        return Duration.between(firstDeparture, lastArrival).toMinutes();
+    @Override
+    public List<Flight> applyFilter(FlightStore store, FlightFilterRequest filterRequest) {
+        long start = System.nanoTime();
+        FlightStore.Selection selection = store.selection(FlightStoreQuery.of(filterRequest));
+        List<Flight> result = new ArrayList<>(selection.flights().length);
+        for (int flight : selection.flights()) {
+            result.add(store.getFlight(flight));
+        }
+        if (metrics != null) {
+            metrics.recordCall(selection.tested(), result.size(), System.nanoTime() - start);
+        }
+        return result;
     }
 
     @Override
     public List<Flight> filterFromCurrentTime(List<Flight> flights) {
-        return flights.stream()
-                .filter(flight -> flight.getSegments().stream()
-                        .allMatch(segment -> segment.getDepartureDate().isBefore(LocalDateTime.now())))
-                .toList();
+        LocalDateTime now = LocalDateTime.now(clock);
+        return unmodifiableFilter(flights, () -> flight -> flight.getSegments().stream()
+                .allMatch(segment -> segment.getDepartureDate().isBefore(now)));
+    }
+
+    @Override
+    public List<Flight> filterFromCurrentTime(PartitionedFlightStore store) {
+        return Collections.unmodifiableList(store.departed());
     }
 
     @Override
     public List<Flight> filterArrivalBeforeDeparture(List<Flight> flights) {
-        return flights.stream()
-                .filter(flight -> flight.getSegments().stream()
-                        .allMatch(segment -> segment.getArrivalDate().isBefore(segment.getDepartureDate())))
-                .toList();
+        return unmodifiableFilter(flights,
+                () -> flight -> flight.getStats().backwardSegments() == flight.getSegments().size());
     }
 
     @Override
     public List<Flight> filterMoreThanTwoHoursGroundTime(List<Flight> flights) {
-        return flights.stream()
-                .filter(flight -> calculateTotalGroundTime(flight) > 120L)
-                .toList();
+        return unmodifiableFilter(flights, () -> flight -> flight.getStats().groundMinutes() > 120L);
+    }
+
+    /**
+     * The fixed filters return unmodifiable lists in both the sequential and the parallel mode.
+     */
+    private List<Flight> unmodifiableFilter(List<Flight> flights, Supplier<Predicate<Flight>> predicateFactory) {
+        return Collections.unmodifiableList(filter(flights, predicateFactory));
     }
 
     @Override
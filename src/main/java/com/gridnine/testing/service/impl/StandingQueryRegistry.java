@@ -0,0 +1,225 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.dto.FlightDelta;
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a keyed flight set and the results of registered filter requests up to date.
+ * Every change is evaluated against the changed flights only, each subscriber receives
+ * a {@link FlightDelta} per change batch that affected its result.
+ * Deltas are queued per query in commit order and delivered after the registry lock has been released,
+ * one at a time and in that order, by whichever mutating thread finds the queue idle.
+ * A listener that throws is logged and skipped: the other queries still receive their deltas
+ * and the change that has already been committed does not fail.
+ */
+public class StandingQueryRegistry {
+
+    private static final Logger logger = Logger.getLogger(StandingQueryRegistry.class.getName());
+
+    private final FlightFilterService flightFilterService;
+    private final Map<Long, Flight> flights = new HashMap<>();
+    private final List<StandingQuery> queries = new ArrayList<>();
+
+    public StandingQueryRegistry(FlightFilterService flightFilterService) {
+        this.flightFilterService = flightFilterService;
+    }
+
+    /**
+     * Registers the request; the listener first receives the current matches as additions.
+     * The request is copied, later changes to it have no effect.
+     */
+    public StandingQuery register(FlightFilterRequest filterRequest, Consumer<FlightDelta> listener) {
+        StandingQuery query = new StandingQuery(FlightFilterCriteria.of(filterRequest), listener);
+        synchronized (this) {
+            Map<Long, Flight> added = query.evaluate(flights);
+            query.matching.addAll(added.keySet());
+            queries.add(query);
+            query.enqueue(new FlightDelta(added, Map.of(), Set.of()));
+        }
+        query.deliver();
+        return query;
+    }
+
+    public void put(long id, Flight flight) {
+        apply(Map.of(id, flight), List.of());
+    }
+
+    public void remove(long id) {
+        apply(Map.of(), List.of(id));
+    }
+
+    /**
+     * Adds or replaces {@code upserts} and removes {@code removals} as one batch.
+     */
+    public void apply(Map<Long, Flight> upserts, Collection<Long> removals) {
+        List<StandingQuery> affected = new ArrayList<>();
+        synchronized (this) {
+            Set<Long> removed = new HashSet<>();
+            for (Long id : removals) {
+                if (!upserts.containsKey(id) && flights.remove(id) != null) {
+                    removed.add(id);
+                }
+            }
+            flights.putAll(upserts);
+
+            for (StandingQuery query : queries) {
+                if (query.enqueue(query.update(upserts, removed))) {
+                    affected.add(query);
+                }
+            }
+        }
+        affected.forEach(StandingQuery::deliver);
+    }
+
+    public synchronized int size() {
+        return flights.size();
+    }
+
+    private synchronized void unregister(StandingQuery query) {
+        queries.remove(query);
+        query.pending.clear();
+    }
+
+    /**
+     * Handle of a registered request; closing it stops further deltas.
+     */
+    public final class StandingQuery implements AutoCloseable {
+
+        private final FlightFilterCriteria criteria;
+        private final FlightFilterRequest filterRequest;
+        private final Consumer<FlightDelta> listener;
+        private final Set<Long> matching = new HashSet<>();
+        private final ArrayDeque<FlightDelta> pending = new ArrayDeque<>();
+        private boolean delivering;
+
+        private StandingQuery(FlightFilterCriteria criteria, Consumer<FlightDelta> listener) {
+            this.criteria = criteria;
+            this.filterRequest = criteria.toRequest();
+            this.listener = listener;
+        }
+
+        public FlightFilterCriteria criteria() {
+            return criteria;
+        }
+
+        public Set<Long> matchingIds() {
+            synchronized (StandingQueryRegistry.this) {
+                return Set.copyOf(matching);
+            }
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+
+        /**
+         * Queues a non-empty delta; must be called under the registry lock so that queue order is commit order.
+         */
+        private boolean enqueue(FlightDelta delta) {
+            if (delta.isEmpty()) {
+                return false;
+            }
+            pending.add(delta);
+            return true;
+        }
+
+        /**
+         * Drains the queue unless another thread already does; a listener that mutates the registry
+         * only queues its own deltas, they are delivered after it returns.
+         */
+        private void deliver() {
+            synchronized (StandingQueryRegistry.this) {
+                if (delivering) {
+                    return;
+                }
+                delivering = true;
+            }
+            try {
+                while (true) {
+                    FlightDelta delta;
+                    synchronized (StandingQueryRegistry.this) {
+                        delta = pending.poll();
+                        if (delta == null) {
+                            delivering = false;
+                            return;
+                        }
+                    }
+                    try {
+                        listener.accept(delta);
+                    } catch (RuntimeException e) {
+                        logger.warning("Ошибка обработчика постоянного запроса " + criteria + ": " + e.getMessage());
+                    }
+                }
+            } catch (Error e) {
+                synchronized (StandingQueryRegistry.this) {
+                    delivering = false;
+                }
+                throw e;
+            }
+        }
+
+        private Map<Long, Flight> evaluate(Map<Long, Flight> candidates) {
+            List<Long> ids = new ArrayList<>(candidates.size());
+            List<Flight> values = new ArrayList<>(candidates.size());
+            candidates.forEach((id, flight) -> {
+                ids.add(id);
+                values.add(flight);
+            });
+
+            List<Flight> matches = flightFilterService.applyFilter(values, filterRequest);
+            Set<Flight> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+            matched.addAll(matches);
+            Map<Long, Flight> result = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (matched.contains(values.get(i))) {
+                    result.put(ids.get(i), values.get(i));
+                }
+            }
+            return result;
+        }
+
+        private FlightDelta update(Map<Long, Flight> upserts, Set<Long> removals) {
+            Map<Long, Flight> matches = upserts.isEmpty() ? Map.of() : evaluate(upserts);
+            Map<Long, Flight> added = new HashMap<>();
+            Map<Long, Flight> updated = new HashMap<>();
+            Set<Long> removed = new HashSet<>();
+
+            for (Long id : upserts.keySet()) {
+                Flight flight = matches.get(id);
+                boolean wasMatching = matching.contains(id);
+                if (flight != null && wasMatching) {
+                    updated.put(id, flight);
+                } else if (flight != null) {
+                    matching.add(id);
+                    added.put(id, flight);
+                } else if (wasMatching) {
+                    matching.remove(id);
+                    removed.add(id);
+                }
+            }
+            for (Long id : removals) {
+                if (matching.remove(id)) {
+                    removed.add(id);
+                }
+            }
+            return new FlightDelta(added, updated, removed);
+        }
+    }
+}
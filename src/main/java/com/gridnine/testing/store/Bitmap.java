@@ -0,0 +1,257 @@
+package com.gridnine.testing.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable compressed bitmap of non-negative ints.
+ * The value range is split into blocks of 4096 bits; an empty block is {@code null},
+ * a sparse block is a sorted {@code char[]} of offsets, a dense block is a {@code long[]} of 64 words.
+ */
+public final class Bitmap {
+
+    private static final int BLOCK_BITS = 4096;
+    private static final int BLOCK_SHIFT = 12;
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+    private static final int MAX_ARRAY_SIZE = 256;
+
+    private static final Bitmap EMPTY = new Bitmap(new Object[0]);
+
+    private final Object[] blocks;
+
+    private Bitmap(Object[] blocks) {
+        this.blocks = blocks;
+    }
+
+    public static Bitmap empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean contains(int value) {
+        int block = value >>> BLOCK_SHIFT;
+        if (block >= blocks.length || blocks[block] == null) {
+            return false;
+        }
+        int offset = value & (BLOCK_BITS - 1);
+        if (blocks[block] instanceof long[] words) {
+            return (words[offset >>> 6] & (1L << offset)) != 0;
+        }
+        return Arrays.binarySearch((char[]) blocks[block], (char) offset) >= 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Object block : blocks) {
+            if (block instanceof long[] words) {
+                for (long word : words) {
+                    cardinality += Long.bitCount(word);
+                }
+            } else if (block != null) {
+                cardinality += ((char[]) block).length;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns all values in ascending order.
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int count = 0;
+        for (int block = 0; block < blocks.length; block++) {
+            int base = block << BLOCK_SHIFT;
+            if (blocks[block] instanceof long[] words) {
+                for (int w = 0; w < BLOCK_WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        result[count++] = base + (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else if (blocks[block] != null) {
+                for (char offset : (char[]) blocks[block]) {
+                    result[count++] = base + offset;
+                }
+            }
+        }
+        return result;
+    }
+
+    public Bitmap and(Bitmap other) {
+        int length = Math.min(blocks.length, other.blocks.length);
+        Object[] result = new Object[length];
+        for (int block = 0; block < length; block++) {
+            Object left = blocks[block];
+            Object right = other.blocks[block];
+            if (left != null && right != null) {
+                result[block] = and(left, right);
+            }
+        }
+        return new Bitmap(result);
+    }
+
+    public Bitmap or(Bitmap other) {
+        return or(List.of(this, other));
+    }
+
+    /**
+     * Unions several bitmaps block by block, accumulating each block in a single word buffer.
+     */
+    public static Bitmap or(List<Bitmap> bitmaps) {
+        int length = 0;
+        for (Bitmap bitmap : bitmaps) {
+            length = Math.max(length, bitmap.blocks.length);
+        }
+        Object[] result = new Object[length];
+        long[] words = new long[BLOCK_WORDS];
+        for (int block = 0; block < length; block++) {
+            Object single = null;
+            int present = 0;
+            for (Bitmap bitmap : bitmaps) {
+                if (block < bitmap.blocks.length && bitmap.blocks[block] != null) {
+                    single = bitmap.blocks[block];
+                    present++;
+                }
+            }
+            if (present == 1) {
+                result[block] = single;
+            } else if (present > 1) {
+                Arrays.fill(words, 0);
+                for (Bitmap bitmap : bitmaps) {
+                    if (block < bitmap.blocks.length && bitmap.blocks[block] != null) {
+                        orInto(words, bitmap.blocks[block]);
+                    }
+                }
+                result[block] = compact(words);
+            }
+        }
+        return new Bitmap(result);
+    }
+
+    private static Object and(Object left, Object right) {
+        if (left instanceof long[] leftWords && right instanceof long[] rightWords) {
+            long[] words = new long[BLOCK_WORDS];
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                words[w] = leftWords[w] & rightWords[w];
+            }
+            return compact(words);
+        }
+        if (left instanceof char[] leftArray && right instanceof char[] rightArray) {
+            char[] values = new char[Math.min(leftArray.length, rightArray.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < leftArray.length && j < rightArray.length) {
+                if (leftArray[i] < rightArray[j]) {
+                    i++;
+                } else if (leftArray[i] > rightArray[j]) {
+                    j++;
+                } else {
+                    values[count++] = leftArray[i];
+                    i++;
+                    j++;
+                }
+            }
+            return count == 0 ? null : Arrays.copyOf(values, count);
+        }
+        char[] array = left instanceof char[] ? (char[]) left : (char[]) right;
+        long[] words = left instanceof long[] ? (long[]) left : (long[]) right;
+        char[] values = new char[array.length];
+        int count = 0;
+        for (char offset : array) {
+            if ((words[offset >>> 6] & (1L << offset)) != 0) {
+                values[count++] = offset;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(values, count);
+    }
+
+    private static void orInto(long[] words, Object block) {
+        if (block instanceof long[] blockWords) {
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                words[w] |= blockWords[w];
+            }
+        } else {
+            for (char offset : (char[]) block) {
+                words[offset >>> 6] |= 1L << offset;
+            }
+        }
+    }
+
+    private static Object compact(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > MAX_ARRAY_SIZE) {
+            return words.clone();
+        }
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (int w = 0; w < BLOCK_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Collects values added in ascending order.
+     */
+    public static final class Builder {
+
+        private Object[] blocks = new Object[4];
+        private final long[] words = new long[BLOCK_WORDS];
+        private int currentBlock = -1;
+        private int last = -1;
+
+        private Builder() {
+        }
+
+        public Builder add(int value) {
+            if (value <= last) {
+                throw new IllegalArgumentException("values must be added in ascending order");
+            }
+            int block = value >>> BLOCK_SHIFT;
+            if (block != currentBlock) {
+                flush();
+                currentBlock = block;
+            }
+            int offset = value & (BLOCK_BITS - 1);
+            words[offset >>> 6] |= 1L << offset;
+            last = value;
+            return this;
+        }
+
+        public Bitmap build() {
+            flush();
+            int length = currentBlock + 1;
+            return new Bitmap(Arrays.copyOf(blocks, Math.max(length, 0)));
+        }
+
+        private void flush() {
+            if (currentBlock < 0) {
+                return;
+            }
+            if (currentBlock >= blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(blocks.length * 2, currentBlock + 1));
+            }
+            Object block = compact(words);
+            if (block != null) {
+                blocks[currentBlock] = block;
+                Arrays.fill(words, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.gridnine.testing.store;
+
+/**
+ * Threshold comparison over a primitive column that narrows a match mask.
+ * Bit {@code i % 64} of {@code mask[i / 64]} stands for flight {@code i}; a kernel only ever clears bits.
+ * Obtain implementations from {@link ColumnKernels}.
+ */
+public interface ColumnKernel {
+
+    /**
+     * Clears the mask bits of flights whose value is not greater than the threshold.
+     */
+    void greaterThan(long[] column, int size, long threshold, long[] mask);
+
+    /**
+     * Clears the mask bits of flights whose value is not less than the threshold.
+     */
+    void lessThan(long[] column, int size, long threshold, long[] mask);
+
+    String name();
+}
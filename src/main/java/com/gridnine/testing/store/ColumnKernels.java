@@ -0,0 +1,69 @@
+package com.gridnine.testing.store;
+
+import java.util.logging.Logger;
+
+/**
+ * Factory of {@link ColumnKernel}s. The vector kernel is compiled only by the {@code vector} Maven profile and
+ * needs {@code --add-modules jdk.incubator.vector} at run time; without either it is never loaded and
+ * {@link #best()} falls back to the scalar kernel.
+ */
+public final class ColumnKernels {
+
+    private static final Logger logger = Logger.getLogger(ColumnKernels.class.getName());
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.gridnine.testing.store.VectorColumnKernel";
+    private static final String VECTOR_KERNEL_RESOURCE = "VectorColumnKernel.class";
+
+    private static final ColumnKernel SCALAR = new ScalarColumnKernel();
+    private static volatile ColumnKernel best;
+
+    private ColumnKernels() {
+    }
+
+    public static ColumnKernel scalar() {
+        return SCALAR;
+    }
+
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()
+                && ColumnKernels.class.getResource(VECTOR_KERNEL_RESOURCE) != null;
+    }
+
+    /**
+     * Returns the Vector API kernel.
+     *
+     * @throws UnsupportedOperationException if the kernel was not compiled or the {@code jdk.incubator.vector}
+     *                                       module is not enabled
+     */
+    public static ColumnKernel vector() {
+        if (ColumnKernels.class.getResource(VECTOR_KERNEL_RESOURCE) == null) {
+            throw new UnsupportedOperationException("Векторное ядро не собрано, нужен профиль vector");
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            throw new UnsupportedOperationException("Модуль " + VECTOR_MODULE + " не подключён");
+        }
+        try {
+            return (ColumnKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new UnsupportedOperationException("Не удалось загрузить векторное ядро", e);
+        }
+    }
+
+    /**
+     * Returns the vector kernel when available, otherwise the scalar one.
+     */
+    public static ColumnKernel best() {
+        ColumnKernel kernel = best;
+        if (kernel == null) {
+            try {
+                kernel = vector();
+            } catch (UnsupportedOperationException e) {
+                logger.info("Векторное ядро недоступно, используется скалярное: " + e.getMessage());
+                kernel = SCALAR;
+            }
+            best = kernel;
+        }
+        return kernel;
+    }
+}
@@ -0,0 +1,113 @@
+package com.gridnine.testing.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bitmap index over the stop count and the ground, air and total flight minutes of every flight in a store.
+ * Every measure keeps one bitmap per bucket; the first and the last bucket are open-ended.
+ */
+final class FlightBitmapIndex {
+
+    enum Measure {
+        STOPS(1, 16),
+        GROUND_MINUTES(30, 96),
+        AIR_MINUTES(30, 96),
+        FLIGHT_MINUTES(30, 96);
+
+        private final long width;
+        private final int buckets;
+
+        Measure(long width, int buckets) {
+            this.width = width;
+            this.buckets = buckets;
+        }
+
+        int bucket(long value) {
+            return (int) Math.max(0, Math.min(buckets - 1, Math.floorDiv(value, width)));
+        }
+
+        long low(int bucket) {
+            return bucket == 0 ? Long.MIN_VALUE : bucket * width;
+        }
+
+        long high(int bucket) {
+            return bucket == buckets - 1 ? Long.MAX_VALUE : (bucket + 1) * width - 1;
+        }
+    }
+
+    /**
+     * Flights that certainly satisfy a criterion and flights that may satisfy it (a superset).
+     */
+    record Match(Bitmap sure, Bitmap possible) {
+
+        Match and(Match other) {
+            return new Match(sure.and(other.sure), possible.and(other.possible));
+        }
+    }
+
+    private final Bitmap[][] bitmaps;
+
+    private FlightBitmapIndex(Bitmap[][] bitmaps) {
+        this.bitmaps = bitmaps;
+    }
+
+    static FlightBitmapIndex build(FlightColumns columns) {
+        Measure[] measures = Measure.values();
+        Bitmap.Builder[][] builders = new Bitmap.Builder[measures.length][];
+        for (Measure measure : measures) {
+            builders[measure.ordinal()] = new Bitmap.Builder[measure.buckets];
+            for (int bucket = 0; bucket < measure.buckets; bucket++) {
+                builders[measure.ordinal()][bucket] = Bitmap.builder();
+            }
+        }
+
+        for (int flight = 0; flight < columns.size; flight++) {
+            add(builders, Measure.STOPS, columns.stops[flight], flight);
+            add(builders, Measure.GROUND_MINUTES, columns.groundMinutes[flight], flight);
+            add(builders, Measure.AIR_MINUTES, columns.airMinutes[flight], flight);
+            add(builders, Measure.FLIGHT_MINUTES, columns.flightMinutes[flight], flight);
+        }
+
+        Bitmap[][] bitmaps = new Bitmap[measures.length][];
+        for (Measure measure : measures) {
+            bitmaps[measure.ordinal()] = new Bitmap[measure.buckets];
+            for (int bucket = 0; bucket < measure.buckets; bucket++) {
+                bitmaps[measure.ordinal()][bucket] = builders[measure.ordinal()][bucket].build();
+            }
+        }
+        return new FlightBitmapIndex(bitmaps);
+    }
+
+    private static void add(Bitmap.Builder[][] builders, Measure measure, long value, int flight) {
+        builders[measure.ordinal()][measure.bucket(value)].add(flight);
+    }
+
+    Match greaterThan(Measure measure, long threshold) {
+        List<Bitmap> sure = new ArrayList<>();
+        List<Bitmap> possible = new ArrayList<>();
+        for (int bucket = measure.bucket(threshold); bucket < measure.buckets; bucket++) {
+            if (measure.low(bucket) > threshold) {
+                sure.add(bitmaps[measure.ordinal()][bucket]);
+            }
+            if (measure.high(bucket) > threshold) {
+                possible.add(bitmaps[measure.ordinal()][bucket]);
+            }
+        }
+        return new Match(Bitmap.or(sure), Bitmap.or(possible));
+    }
+
+    Match lessThan(Measure measure, long threshold) {
+        List<Bitmap> sure = new ArrayList<>();
+        List<Bitmap> possible = new ArrayList<>();
+        for (int bucket = 0; bucket <= measure.bucket(threshold); bucket++) {
+            if (measure.high(bucket) < threshold) {
+                sure.add(bitmaps[measure.ordinal()][bucket]);
+            }
+            if (measure.low(bucket) < threshold) {
+                possible.add(bitmaps[measure.ordinal()][bucket]);
+            }
+        }
+        return new Match(Bitmap.or(sure), Bitmap.or(possible));
+    }
+}
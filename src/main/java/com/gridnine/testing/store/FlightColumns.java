@@ -0,0 +1,58 @@
+package com.gridnine.testing.store;
+
+/**
+ * Per-flight aggregates of a {@link FlightStore} as parallel primitive columns, computed in a single pass
+ * over the segments. They are the input of the {@link ColumnKernel}s, the time and bitmap indexes
+ * and {@link FlightStoreQuery#test(FlightStore, int)}.
+ * Flights without segments have {@code Long.MAX_VALUE} as earliest departure, {@code Long.MIN_VALUE}
+ * as latest arrival and {@code -1} stops.
+ */
+final class FlightColumns {
+
+    final int size;
+    final long[] earliestDepartures;
+    final long[] latestArrivals;
+    final long[] groundMinutes;
+    final long[] airMinutes;
+    final long[] flightMinutes;
+    final long[] stops;
+
+    private FlightColumns(int size) {
+        this.size = size;
+        earliestDepartures = new long[size];
+        latestArrivals = new long[size];
+        groundMinutes = new long[size];
+        airMinutes = new long[size];
+        flightMinutes = new long[size];
+        stops = new long[size];
+    }
+
+    static FlightColumns build(FlightStore store) {
+        FlightColumns columns = new FlightColumns(store.size());
+        for (int flight = 0; flight < store.size(); flight++) {
+            int start = store.segmentStart(flight);
+            int end = store.segmentEnd(flight);
+            long minDeparture = Long.MAX_VALUE;
+            long maxArrival = Long.MIN_VALUE;
+            long air = 0;
+            long ground = 0;
+            for (int i = start; i < end; i++) {
+                long departure = store.departure(i);
+                long arrival = store.arrival(i);
+                minDeparture = Math.min(minDeparture, departure);
+                maxArrival = Math.max(maxArrival, arrival);
+                air += arrival - departure;
+                if (i > start) {
+                    ground += departure - store.arrival(i - 1);
+                }
+            }
+            columns.earliestDepartures[flight] = minDeparture;
+            columns.latestArrivals[flight] = maxArrival;
+            columns.groundMinutes[flight] = ground;
+            columns.airMinutes[flight] = air;
+            columns.flightMinutes[flight] = end > start ? store.arrival(end - 1) - store.departure(start) : 0;
+            columns.stops[flight] = end - start - 1;
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,199 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe keyed flight set with lock-free, versioned snapshot reads.
+ * Flights are spread by id over immutable copy-on-write shards; a write rebuilds every shard it touches once
+ * and publishes a new {@link Snapshot} with a compare-and-set, retrying when another writer won the race.
+ * Readers never block and always see a complete state of one version.
+ */
+public class FlightRepository {
+
+    public static final int DEFAULT_SHARDS = 256;
+
+    private final AtomicReference<Snapshot> current;
+
+    public FlightRepository() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * @param shards number of copy-on-write shards, rounded up to a power of two
+     */
+    public FlightRepository(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shard count must be positive");
+        }
+        int count = shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        Shard[] empty = new Shard[count];
+        Arrays.fill(empty, Shard.EMPTY);
+        current = new AtomicReference<>(new Snapshot(0, empty));
+    }
+
+    /**
+     * Returns the latest published snapshot without locking.
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public Snapshot put(long id, Flight flight) {
+        return apply(Map.of(id, flight), List.of());
+    }
+
+    public Snapshot remove(long id) {
+        return apply(Map.of(), List.of(id));
+    }
+
+    /**
+     * Atomically adds or replaces {@code upserts} and removes {@code removals}; readers see all changes or none.
+     *
+     * @return the snapshot that contains the changes
+     */
+    public Snapshot apply(Map<Long, Flight> upserts, Collection<Long> removals) {
+        while (true) {
+            Snapshot base = current.get();
+            Map<Integer, TreeMap<Long, Flight>> changes = new HashMap<>();
+            for (Long id : removals) {
+                changes.computeIfAbsent(base.shardOf(id), shard -> new TreeMap<>()).put(id, null);
+            }
+            upserts.forEach((id, flight) -> changes.computeIfAbsent(base.shardOf(id), shard -> new TreeMap<>())
+                    .put(id, Objects.requireNonNull(flight, "flight")));
+
+            Shard[] shards = base.shards.clone();
+            changes.forEach((shard, shardChanges) -> shards[shard] = shards[shard].merge(shardChanges));
+            Snapshot next = new Snapshot(base.version + 1, shards);
+            if (current.compareAndSet(base, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Immutable state of the repository at one version.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Shard[] shards;
+        private final int[] offsets;
+        private final int mask;
+
+        private Snapshot(long version, Shard[] shards) {
+            this.version = version;
+            this.shards = shards;
+            this.mask = shards.length - 1;
+            offsets = new int[shards.length + 1];
+            for (int i = 0; i < shards.length; i++) {
+                offsets[i + 1] = offsets[i] + shards[i].ids.length;
+            }
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public int size() {
+            return offsets[shards.length];
+        }
+
+        public Flight get(long id) {
+            Shard shard = shards[shardOf(id)];
+            int index = Arrays.binarySearch(shard.ids, id);
+            return index >= 0 ? shard.flights[index] : null;
+        }
+
+        /**
+         * All flights of the snapshot as an unmodifiable random-access list, ordered by shard, then by id.
+         */
+        public List<Flight> flights() {
+            return new FlightsView();
+        }
+
+        private int shardOf(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private final class FlightsView extends AbstractList<Flight> implements RandomAccess {
+
+            @Override
+            public Flight get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                int shard = Arrays.binarySearch(offsets, index);
+                if (shard < 0) {
+                    shard = -shard - 2;
+                } else {
+                    while (offsets[shard + 1] == index) {
+                        shard++;
+                    }
+                }
+                return shards[shard].flights[index - offsets[shard]];
+            }
+
+            @Override
+            public int size() {
+                return Snapshot.this.size();
+            }
+        }
+    }
+
+    /**
+     * Immutable id-sorted shard.
+     */
+    private static final class Shard {
+
+        static final Shard EMPTY = new Shard(new long[0], new Flight[0]);
+
+        final long[] ids;
+        final Flight[] flights;
+
+        Shard(long[] ids, Flight[] flights) {
+            this.ids = ids;
+            this.flights = flights;
+        }
+
+        /**
+         * Returns a shard with the changes applied; a {@code null} flight removes the id.
+         */
+        Shard merge(TreeMap<Long, Flight> changes) {
+            long[] newIds = new long[ids.length + changes.size()];
+            Flight[] newFlights = new Flight[newIds.length];
+            int count = 0;
+            int i = 0;
+            for (Map.Entry<Long, Flight> change : changes.entrySet()) {
+                long id = change.getKey();
+                while (i < ids.length && ids[i] < id) {
+                    newIds[count] = ids[i];
+                    newFlights[count++] = flights[i++];
+                }
+                if (i < ids.length && ids[i] == id) {
+                    i++;
+                }
+                if (change.getValue() != null) {
+                    newIds[count] = id;
+                    newFlights[count++] = change.getValue();
+                }
+            }
+            int rest = ids.length - i;
+            System.arraycopy(ids, i, newIds, count, rest);
+            System.arraycopy(flights, i, newFlights, count, rest);
+            count += rest;
+            return new Shard(Arrays.copyOf(newIds, count), Arrays.copyOf(newFlights, count));
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.dto.FlightCursor;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.model.SegmentPool;
+import com.gridnine.testing.util.EpochMinutes;
+import com.gridnine.testing.util.FlightAggregator;
+import com.gridnine.testing.util.TopKHeap;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar, read-only storage of flights.
+ * Segment times are packed as epoch minutes into flat columns, segments of flight {@code i}
+ * occupy the range {@code [segmentStart(i), segmentEnd(i))}.
+ * Columns are heap arrays for built stores or views of a memory-mapped file, see {@link FlightStoreFile}.
+ */
+public final class FlightStore {
+
+    private final int size;
+    private final IntBuffer segmentOffsets;
+    private final LongBuffer departures;
+    private final LongBuffer arrivals;
+
+    private volatile FlightTimeIndex minDepartureIndex;
+    private volatile FlightTimeIndex maxArrivalIndex;
+    private volatile FlightBitmapIndex bitmapIndex;
+    private volatile FlightColumns columns;
+
+    FlightStore(int size, IntBuffer segmentOffsets, LongBuffer departures, LongBuffer arrivals) {
+        this.size = size;
+        this.segmentOffsets = segmentOffsets;
+        this.departures = departures;
+        this.arrivals = arrivals;
+    }
+
+    public static FlightStore of(List<Flight> flights) {
+        int segmentCount = 0;
+        for (Flight flight : flights) {
+            segmentCount += flight.getSegments().size();
+        }
+        Builder builder = new Builder(flights.size(), segmentCount);
+        for (Flight flight : flights) {
+            for (Segment segment : flight.getSegments()) {
+                builder.addSegment(EpochMinutes.of(segment.getDepartureDate()), EpochMinutes.of(segment.getArrivalDate()));
+            }
+            builder.endFlight();
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(16, 32);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int segmentCount() {
+        return segmentOffsets.get(size);
+    }
+
+    public int segmentStart(int flight) {
+        return segmentOffsets.get(flight);
+    }
+
+    public int segmentEnd(int flight) {
+        return segmentOffsets.get(flight + 1);
+    }
+
+    public long departure(int segment) {
+        return departures.get(segment);
+    }
+
+    public long arrival(int segment) {
+        return arrivals.get(segment);
+    }
+
+    /**
+     * Returns positions of the flights matching the query in ascending order.
+     * Departure and arrival criteria are first resolved by binary search over the sorted time indexes,
+     * stop and duration criteria by bitmap operations; the full check runs only on the narrowest candidate set.
+     * Without time criteria flights from fully matching bitmap buckets are accepted without any check.
+     */
+    public int[] select(FlightStoreQuery query) {
+        return selection(query).flights();
+    }
+
+    /**
+     * Same as {@link #select}, also reporting how many flights were actually checked against the query;
+     * flights resolved by index lookups alone are not counted.
+     */
+    public Selection selection(FlightStoreQuery query) {
+        FlightColumns flightColumns = columns();
+        int[] candidates = null;
+        if (query.hasDepartureRange()) {
+            candidates = minDepartureIndex().range(query.minDepartureLow(), query.minDepartureHigh());
+        }
+        if (query.hasArrivalRange()) {
+            FlightTimeIndex index = maxArrivalIndex();
+            long low = query.maxArrivalLow();
+            long high = query.maxArrivalHigh();
+            if (candidates == null || index.count(low, high) < candidates.length) {
+                candidates = index.range(low, high);
+            }
+        }
+
+        FlightBitmapIndex.Match match = query.hasBitmapCriteria() ? query.bitmapMatch(bitmapIndex()) : null;
+        if (match != null && candidates == null) {
+            int[] possible = match.possible().toArray();
+            int count = 0;
+            int tested = 0;
+            for (int flight : possible) {
+                if (match.sure().contains(flight)) {
+                    possible[count++] = flight;
+                } else {
+                    tested++;
+                    if (query.test(flightColumns, flight)) {
+                        possible[count++] = flight;
+                    }
+                }
+            }
+            return new Selection(Arrays.copyOf(possible, count), tested);
+        }
+        if (match != null && match.possible().cardinality() < candidates.length) {
+            candidates = match.possible().toArray();
+        }
+
+        int[] result = new int[candidates != null ? candidates.length : size];
+        int count = 0;
+        int tested = candidates != null ? candidates.length : size;
+        if (candidates != null) {
+            for (int flight : candidates) {
+                if (query.test(flightColumns, flight)) {
+                    result[count++] = flight;
+                }
+            }
+        } else {
+            for (int flight = 0; flight < size; flight++) {
+                if (query.test(flightColumns, flight)) {
+                    result[count++] = flight;
+                }
+            }
+        }
+        return new Selection(Arrays.copyOf(result, count), tested);
+    }
+
+    /**
+     * Matching positions in ascending order and the number of flights checked to find them.
+     */
+    public record Selection(int[] flights, int tested) {
+    }
+
+    /**
+     * Returns positions of the flights matching the query in ascending order by a full scan
+     * of per-flight columns with the best available {@link ColumnKernel}.
+     */
+    public int[] scan(FlightStoreQuery query) {
+        return scan(query, ColumnKernels.best());
+    }
+
+    /**
+     * Full column scan with the given kernel: every active criterion narrows a bit mask of all flights.
+     */
+    public int[] scan(FlightStoreQuery query, ColumnKernel kernel) {
+        long[] mask = matchMask(query, kernel);
+
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        int[] result = new int[count];
+        int position = 0;
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                result[position++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns positions of one page of the flights matching the query, in query order.
+     * {@link FlightSortKey#FIRST_DEPARTURE} walks the departure index from the cursor and stops after the page,
+     * other keys select the matches and keep the first {@code offset + limit} of them in a bounded heap.
+     * Departure keys are epoch minutes, ties are broken by position.
+     */
+    public int[] page(FlightStoreQuery query, FlightPageRequest pageRequest) {
+        if (pageRequest.sortKey() == FlightSortKey.FIRST_DEPARTURE) {
+            return walkDepartureIndex(query, pageRequest);
+        }
+        return page(select(query), pageRequest);
+    }
+
+    /**
+     * Orders the given flight positions and returns one page of them.
+     */
+    public int[] page(int[] flights, FlightPageRequest pageRequest) {
+        long[] column = sortColumn(pageRequest.sortKey());
+        boolean descending = pageRequest.descending();
+        FlightCursor after = pageRequest.after();
+        TopKHeap heap = new TopKHeap((int) Math.max(1, Math.min(pageRequest.window(), flights.length)), descending);
+        for (int flight : flights) {
+            if (after == null || TopKHeap.isAfter(column[flight], 0, flight, after, descending)) {
+                heap.offer(column[flight], 0, flight);
+            }
+        }
+        int[] ordered = heap.drainSorted();
+        return ordered.length > pageRequest.offset()
+                ? Arrays.copyOfRange(ordered, pageRequest.offset(), ordered.length)
+                : new int[0];
+    }
+
+    /**
+     * Cursor that continues a page ending with the given flight.
+     */
+    public FlightCursor cursor(int flight, FlightSortKey sortKey) {
+        return new FlightCursor(sortColumn(sortKey)[flight], 0, flight);
+    }
+
+    private int[] walkDepartureIndex(FlightStoreQuery query, FlightPageRequest pageRequest) {
+        FlightColumns flightColumns = columns();
+        FlightTimeIndex index = minDepartureIndex();
+        boolean descending = pageRequest.descending();
+        FlightCursor after = pageRequest.after();
+        int from = query.hasDepartureRange() ? index.firstAtLeast(query.minDepartureLow()) : 0;
+        int to = query.hasDepartureRange() ? index.firstGreaterThan(query.minDepartureHigh()) : index.size();
+        if (after != null && !descending) {
+            from = Math.max(from, index.firstAtLeast(after.key()));
+        } else if (after != null) {
+            to = Math.min(to, index.firstGreaterThan(after.key()));
+        }
+
+        int skip = pageRequest.offset();
+        int[] result = new int[Math.min(pageRequest.limit(), Math.max(0, to - from))];
+        int count = 0;
+        for (int i = 0; i < to - from && count < result.length; i++) {
+            int rank = descending ? to - 1 - i : from + i;
+            int flight = index.flight(rank);
+            if (after != null && !TopKHeap.isAfter(index.key(rank), 0, flight, after, descending)) {
+                continue;
+            }
+            if (query.test(flightColumns, flight)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result[count++] = flight;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private long[] sortColumn(FlightSortKey sortKey) {
+        FlightColumns flightColumns = columns();
+        return switch (sortKey) {
+            case FIRST_DEPARTURE -> flightColumns.earliestDepartures;
+            case FLIGHT_TIME -> flightColumns.flightMinutes;
+            case GROUND_TIME -> flightColumns.groundMinutes;
+            case STOPS -> flightColumns.stops;
+        };
+    }
+
+    /**
+     * Feeds every flight matching the query to the aggregator in one pass over the column match mask,
+     * no positions or flights are materialized.
+     */
+    public void aggregate(FlightStoreQuery query, FlightAggregator aggregator) {
+        FlightColumns flightColumns = columns();
+        long[] mask = matchMask(query, ColumnKernels.best());
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                int flight = (word << 6) + Long.numberOfTrailingZeros(bits);
+                aggregator.accept(flightColumns.airMinutes[flight], flightColumns.groundMinutes[flight],
+                        flightColumns.flightMinutes[flight], flightColumns.stops[flight]);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private long[] matchMask(FlightStoreQuery query, ColumnKernel kernel) {
+        long[] mask = new long[(size + 63) >>> 6];
+        Arrays.fill(mask, -1L);
+        if ((size & 63) != 0) {
+            mask[mask.length - 1] = (1L << size) - 1;
+        }
+        query.match(columns(), kernel, mask);
+        return mask;
+    }
+
+    FlightColumns columns() {
+        FlightColumns flightColumns = columns;
+        if (flightColumns == null) {
+            flightColumns = FlightColumns.build(this);
+            columns = flightColumns;
+        }
+        return flightColumns;
+    }
+
+    private FlightBitmapIndex bitmapIndex() {
+        FlightBitmapIndex index = bitmapIndex;
+        if (index == null) {
+            index = FlightBitmapIndex.build(columns());
+            bitmapIndex = index;
+        }
+        return index;
+    }
+
+    private FlightTimeIndex minDepartureIndex() {
+        FlightTimeIndex index = minDepartureIndex;
+        if (index == null) {
+            index = FlightTimeIndex.build(columns().earliestDepartures);
+            minDepartureIndex = index;
+        }
+        return index;
+    }
+
+    private FlightTimeIndex maxArrivalIndex() {
+        FlightTimeIndex index = maxArrivalIndex;
+        if (index == null) {
+            index = FlightTimeIndex.build(columns().latestArrivals);
+            maxArrivalIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Materializes the flight at the given position.
+     */
+    public Flight getFlight(int flight) {
+        return getFlight(flight, null);
+    }
+
+    /**
+     * Materializes the flight at the given position over segments interned in {@code pool},
+     * so repeated materialization of equal itineraries retains a single copy.
+     */
+    public Flight getFlight(int flight, SegmentPool pool) {
+        int start = segmentStart(flight);
+        int end = segmentEnd(flight);
+        List<Segment> segments = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            segments.add(new Segment(EpochMinutes.toLocalDateTime(departures.get(i)), EpochMinutes.toLocalDateTime(arrivals.get(i))));
+        }
+        return pool != null ? pool.flight(segments) : new Flight(segments);
+    }
+
+    IntBuffer segmentOffsets() {
+        return segmentOffsets.duplicate();
+    }
+
+    LongBuffer departures() {
+        return departures.duplicate();
+    }
+
+    LongBuffer arrivals() {
+        return arrivals.duplicate();
+    }
+
+    /**
+     * Appends flights segment by segment without creating intermediate objects.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int segmentCount;
+        private int[] segmentOffsets;
+        private long[] departures;
+        private long[] arrivals;
+
+        private Builder(int flightCapacity, int segmentCapacity) {
+            segmentOffsets = new int[Math.max(flightCapacity, 1) + 1];
+            departures = new long[Math.max(segmentCapacity, 1)];
+            arrivals = new long[Math.max(segmentCapacity, 1)];
+        }
+
+        public Builder addSegment(long departure, long arrival) {
+            if (segmentCount == departures.length) {
+                departures = Arrays.copyOf(departures, segmentCount * 2);
+                arrivals = Arrays.copyOf(arrivals, segmentCount * 2);
+            }
+            departures[segmentCount] = departure;
+            arrivals[segmentCount] = arrival;
+            segmentCount++;
+            return this;
+        }
+
+        public Builder endFlight() {
+            if (size + 1 == segmentOffsets.length) {
+                segmentOffsets = Arrays.copyOf(segmentOffsets, segmentOffsets.length * 2);
+            }
+            segmentOffsets[++size] = segmentCount;
+            return this;
+        }
+
+        public FlightStore build() {
+            return new FlightStore(size,
+                    IntBuffer.wrap(Arrays.copyOf(segmentOffsets, size + 1)),
+                    LongBuffer.wrap(Arrays.copyOf(departures, segmentCount)),
+                    LongBuffer.wrap(Arrays.copyOf(arrivals, segmentCount)));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.gridnine.testing.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file format of a {@link FlightStore}, little-endian:
+ * <pre>
+ * header      magic "FLT1", version, flight count, segment count (4 ints)
+ * offsets     flight count + 1 ints, padded to 8 bytes
+ * departures  segment count longs, epoch minutes
+ * arrivals    segment count longs, epoch minutes
+ * </pre>
+ * A mapped store reads its columns straight from the file, flights are only built when materialized.
+ */
+public final class FlightStoreFile {
+
+    static final int MAGIC = 0x464C5431;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private FlightStoreFile() {
+    }
+
+    public static void write(FlightStore store, Path path) throws IOException {
+        long fileSize = fileSize(store.size(), store.segmentCount());
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("store is too large for a single mapped file: " + fileSize + " bytes");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(store.size()).putInt(store.segmentCount());
+
+            IntBuffer offsets = store.segmentOffsets();
+            for (int i = 0; i < store.size() + 1; i++) {
+                flushIfFull(channel, buffer, Integer.BYTES);
+                buffer.putInt(offsets.get(i));
+            }
+            if ((store.size() + 1) % 2 != 0) {
+                flushIfFull(channel, buffer, Integer.BYTES);
+                buffer.putInt(0);
+            }
+            writeLongs(channel, buffer, store.departures(), store.segmentCount());
+            writeLongs(channel, buffer, store.arrivals(), store.segmentCount());
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Maps the file read-only and returns a store backed by the mapping.
+     * The header and the segment offsets are validated up front, so a corrupt file fails here.
+     */
+    public static FlightStore map(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long channelSize = channel.size();
+            if (channelSize > Integer.MAX_VALUE) {
+                throw new IOException("flight store file is too large to map: " + channelSize + " bytes: " + path);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channelSize);
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a flight store file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported flight store file version " + buffer.getInt(4) + ": " + path);
+        }
+        int size = buffer.getInt(8);
+        int segmentCount = buffer.getInt(12);
+        if (size < 0 || segmentCount < 0) {
+            throw new IOException("negative flight or segment count in flight store file: " + path);
+        }
+        if (buffer.capacity() != fileSize(size, segmentCount)) {
+            throw new IOException("truncated flight store file: " + path);
+        }
+
+        int offsetsBytes = (int) offsetsBytes(size);
+        IntBuffer offsets = slice(buffer, HEADER_BYTES, (size + 1) * Integer.BYTES).asIntBuffer();
+        checkOffsets(offsets, size, segmentCount, path);
+        int departuresStart = HEADER_BYTES + offsetsBytes;
+        int columnBytes = segmentCount * Long.BYTES;
+        LongBuffer departures = slice(buffer, departuresStart, columnBytes).asLongBuffer();
+        LongBuffer arrivals = slice(buffer, departuresStart + columnBytes, columnBytes).asLongBuffer();
+        return new FlightStore(size, offsets, departures, arrivals);
+    }
+
+    /**
+     * Offsets must start at zero, never decrease and end at the segment count.
+     */
+    private static void checkOffsets(IntBuffer offsets, int size, int segmentCount, Path path) throws IOException {
+        if (offsets.get(0) != 0 || offsets.get(size) != segmentCount) {
+            throw new IOException("segment offsets do not span the segments of flight store file: " + path);
+        }
+        int previous = 0;
+        for (int flight = 1; flight <= size; flight++) {
+            int offset = offsets.get(flight);
+            if (offset < previous) {
+                throw new IOException("segment offsets decrease at flight " + (flight - 1) + " in flight store file: " + path);
+            }
+            previous = offset;
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeLongs(FileChannel channel, ByteBuffer buffer, LongBuffer column, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            flushIfFull(channel, buffer, Long.BYTES);
+            buffer.putLong(column.get(i));
+        }
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static long offsetsBytes(int size) {
+        return ((size + 1L) * Integer.BYTES + 7) & ~7L;
+    }
+
+    private static long fileSize(int size, int segmentCount) {
+        return HEADER_BYTES + offsetsBytes(size) + 2L * segmentCount * Long.BYTES;
+    }
+}
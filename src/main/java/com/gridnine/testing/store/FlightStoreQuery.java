@@ -0,0 +1,181 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.util.EpochMinutes;
+import com.gridnine.testing.util.FlightCriterion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link FlightFilterCriteria} translated into epoch-minute thresholds for evaluation against a {@link FlightStore},
+ * one per active {@link FlightCriterion}.
+ */
+public final class FlightStoreQuery {
+
+    private final FlightCriterion[] criteria;
+    private final long[] thresholds;
+    private final long minDepartureLow;
+    private final long minDepartureHigh;
+    private final long maxArrivalLow;
+    private final long maxArrivalHigh;
+
+    private FlightStoreQuery(FlightFilterCriteria filterCriteria) {
+        List<FlightCriterion> active = new ArrayList<>();
+        for (FlightCriterion criterion : FlightCriterion.values()) {
+            if (criterion.isActive(filterCriteria)) {
+                active.add(criterion);
+            }
+        }
+        criteria = active.toArray(FlightCriterion[]::new);
+        thresholds = new long[criteria.length];
+        long departureLow = Long.MIN_VALUE;
+        long departureHigh = Long.MAX_VALUE;
+        long arrivalLow = Long.MIN_VALUE;
+        long arrivalHigh = Long.MAX_VALUE;
+        for (int i = 0; i < criteria.length; i++) {
+            FlightCriterion criterion = criteria[i];
+            if (!criterion.measure().isTime()) {
+                thresholds[i] = criterion.amount(filterCriteria);
+                continue;
+            }
+            LocalDateTime time = criterion.time(filterCriteria);
+            thresholds[i] = criterion.below() ? EpochMinutes.ceil(time) : EpochMinutes.of(time);
+            boolean departure = criterion.measure() == FlightCriterion.Measure.EARLIEST_DEPARTURE;
+            if (criterion.below() && departure) {
+                departureHigh = thresholds[i] - 1;
+            } else if (departure) {
+                departureLow = thresholds[i] + 1;
+            } else if (criterion.below()) {
+                arrivalHigh = thresholds[i] - 1;
+            } else {
+                arrivalLow = thresholds[i] + 1;
+            }
+        }
+        minDepartureLow = departureLow;
+        minDepartureHigh = departureHigh;
+        maxArrivalLow = arrivalLow;
+        maxArrivalHigh = arrivalHigh;
+    }
+
+    public static FlightStoreQuery of(FlightFilterRequest filterRequest) {
+        return of(FlightFilterCriteria.of(filterRequest));
+    }
+
+    public static FlightStoreQuery of(FlightFilterCriteria filterCriteria) {
+        return new FlightStoreQuery(filterCriteria);
+    }
+
+    boolean hasDepartureRange() {
+        return minDepartureLow != Long.MIN_VALUE || minDepartureHigh != Long.MAX_VALUE;
+    }
+
+    /**
+     * Inclusive bounds on the earliest departure of a matching flight.
+     */
+    long minDepartureLow() {
+        return minDepartureLow;
+    }
+
+    long minDepartureHigh() {
+        return minDepartureHigh;
+    }
+
+    boolean hasArrivalRange() {
+        return maxArrivalLow != Long.MIN_VALUE || maxArrivalHigh != Long.MAX_VALUE;
+    }
+
+    /**
+     * Inclusive bounds on the latest arrival of a matching flight.
+     */
+    long maxArrivalLow() {
+        return maxArrivalLow;
+    }
+
+    long maxArrivalHigh() {
+        return maxArrivalHigh;
+    }
+
+    boolean hasBitmapCriteria() {
+        for (FlightCriterion criterion : criteria) {
+            if (!criterion.measure().isTime()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves stop and duration criteria against the bitmap index, {@code null} when there are none.
+     */
+    FlightBitmapIndex.Match bitmapMatch(FlightBitmapIndex index) {
+        FlightBitmapIndex.Match match = null;
+        for (int i = 0; i < criteria.length; i++) {
+            FlightBitmapIndex.Measure measure = bitmapMeasure(criteria[i].measure());
+            if (measure == null) {
+                continue;
+            }
+            FlightBitmapIndex.Match criterionMatch = criteria[i].below()
+                    ? index.lessThan(measure, thresholds[i])
+                    : index.greaterThan(measure, thresholds[i]);
+            match = match == null ? criterionMatch : match.and(criterionMatch);
+        }
+        return match;
+    }
+
+    /**
+     * Narrows the mask to the flights matching every active criterion, one column comparison per criterion.
+     */
+    void match(FlightColumns columns, ColumnKernel kernel, long[] mask) {
+        int size = columns.size;
+        for (int i = 0; i < criteria.length; i++) {
+            long[] column = column(columns, criteria[i].measure());
+            if (criteria[i].below()) {
+                kernel.lessThan(column, size, thresholds[i], mask);
+            } else {
+                kernel.greaterThan(column, size, thresholds[i], mask);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the query for a single flight of the store against its precomputed columns.
+     * Semantics match {@code FlightFilterServiceImpl.applyFilter} at minute precision.
+     */
+    public boolean test(FlightStore store, int flight) {
+        return test(store.columns(), flight);
+    }
+
+    boolean test(FlightColumns columns, int flight) {
+        for (int i = 0; i < criteria.length; i++) {
+            long value = column(columns, criteria[i].measure())[flight];
+            if (criteria[i].below() ? value >= thresholds[i] : value <= thresholds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] column(FlightColumns columns, FlightCriterion.Measure measure) {
+        return switch (measure) {
+            case EARLIEST_DEPARTURE -> columns.earliestDepartures;
+            case LATEST_ARRIVAL -> columns.latestArrivals;
+            case GROUND_MINUTES -> columns.groundMinutes;
+            case AIR_MINUTES -> columns.airMinutes;
+            case FLIGHT_MINUTES -> columns.flightMinutes;
+            case STOPS -> columns.stops;
+        };
+    }
+
+    private static FlightBitmapIndex.Measure bitmapMeasure(FlightCriterion.Measure measure) {
+        return switch (measure) {
+            case EARLIEST_DEPARTURE, LATEST_ARRIVAL -> null;
+            case GROUND_MINUTES -> FlightBitmapIndex.Measure.GROUND_MINUTES;
+            case AIR_MINUTES -> FlightBitmapIndex.Measure.AIR_MINUTES;
+            case FLIGHT_MINUTES -> FlightBitmapIndex.Measure.FLIGHT_MINUTES;
+            case STOPS -> FlightBitmapIndex.Measure.STOPS;
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.gridnine.testing.store;
+
+import java.util.Arrays;
+
+/**
+ * Sorted secondary index over one epoch-minute value per flight.
+ */
+final class FlightTimeIndex {
+
+    private final long[] keys;
+    private final int[] flights;
+
+    private FlightTimeIndex(long[] keys, int[] flights) {
+        this.keys = keys;
+        this.flights = flights;
+    }
+
+    static FlightTimeIndex build(long[] keyPerFlight) {
+        int size = keyPerFlight.length;
+        int[] flights = new int[size];
+        for (int i = 0; i < size; i++) {
+            flights[i] = i;
+        }
+        sort(flights, new int[size], keyPerFlight, 0, size);
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyPerFlight[flights[i]];
+        }
+        return new FlightTimeIndex(keys, flights);
+    }
+
+    /**
+     * Returns flight positions whose key lies in {@code [low, high]}, in ascending position order.
+     */
+    int[] range(long low, long high) {
+        int from = firstAtLeast(low);
+        int to = firstGreaterThan(high);
+        if (from >= to) {
+            return new int[0];
+        }
+        int[] result = new int[to - from];
+        System.arraycopy(flights, from, result, 0, result.length);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Number of flights whose key lies in {@code [low, high]}.
+     */
+    int count(long low, long high) {
+        return Math.max(0, firstGreaterThan(high) - firstAtLeast(low));
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Key at the given rank in ascending {@code (key, position)} order.
+     */
+    long key(int rank) {
+        return keys[rank];
+    }
+
+    int flight(int rank) {
+        return flights[rank];
+    }
+
+    int firstAtLeast(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int firstGreaterThan(long key) {
+        return key == Long.MAX_VALUE ? keys.length : firstAtLeast(key + 1);
+    }
+
+    private static void sort(int[] flights, int[] buffer, long[] keys, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(flights, buffer, keys, from, mid);
+        sort(flights, buffer, keys, mid, to);
+        if (keys[flights[mid - 1]] <= keys[flights[mid]]) {
+            return;
+        }
+        System.arraycopy(flights, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && keys[buffer[left]] <= keys[buffer[right]])) {
+                flights[i] = buffer[left++];
+            } else {
+                flights[i] = buffer[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.FlightStats;
+import com.gridnine.testing.model.Segment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Flights partitioned into fixed-width time buckets by their earliest departure.
+ * Every partition tracks its latest segment departure, so queries relative to the current time of the
+ * injected {@link Clock} take fully departed partitions wholesale, skip partitions that start in the future
+ * and check single flights only in the partitions around the current time.
+ * Flights without segments count as departed. Results are ordered by partition, then by insertion.
+ * Retired flights are removed from the store and only their count is kept, see {@link #retiredCount()}.
+ * Nothing retires automatically: the owner calls {@link #retireDeparted()}, e.g. on a schedule, since queries
+ * such as {@code FlightFilterService.filterFromCurrentTime(PartitionedFlightStore)} only read the store.
+ * Methods are synchronized.
+ */
+public class PartitionedFlightStore {
+
+    private final long partitionSeconds;
+    private final Clock clock;
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+    private final List<Flight> withoutSegments = new ArrayList<>();
+    private int size;
+    private int retiredCount;
+
+    public PartitionedFlightStore(Duration partitionWidth, Clock clock) {
+        if (partitionWidth.getSeconds() < 1) {
+            throw new IllegalArgumentException("partition width must be at least one second");
+        }
+        this.partitionSeconds = partitionWidth.getSeconds();
+        this.clock = clock;
+    }
+
+    public synchronized void add(Flight flight) {
+        size++;
+        FlightStats stats = flight.getStats();
+        if (flight.getSegments().isEmpty()) {
+            withoutSegments.add(flight);
+            return;
+        }
+        long key = Math.floorDiv(stats.earliestDepartureSecond(), partitionSeconds);
+        partitions.computeIfAbsent(key, k -> new Partition()).add(flight);
+    }
+
+    public void addAll(Collection<Flight> flights) {
+        flights.forEach(this::add);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int partitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Total number of flights dropped by {@link #retireDeparted()}.
+     */
+    public synchronized int retiredCount() {
+        return retiredCount;
+    }
+
+    /**
+     * Flights not yet retired whose departures are all before now, the semantics of {@code filterFromCurrentTime};
+     * together with the {@link #retiredCount() retired} flights they make up its whole result.
+     */
+    public synchronized List<Flight> departed() {
+        Moment now = now();
+        List<Flight> result = new ArrayList<>(withoutSegments);
+        for (Map.Entry<Long, Partition> entry : partitions.entrySet()) {
+            if (!now.isAfter(entry.getKey() * partitionSeconds, 0)) {
+                break;
+            }
+            Partition partition = entry.getValue();
+            if (partition.departedBefore(now)) {
+                result.addAll(partition.flights);
+            } else {
+                for (Flight flight : partition.flights) {
+                    if (departedBefore(flight, now)) {
+                        result.add(flight);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Flights with at least one departure at or after now; fully departed partitions are not touched.
+     */
+    public synchronized List<Flight> live() {
+        Moment now = now();
+        List<Flight> result = new ArrayList<>();
+        for (Map.Entry<Long, Partition> entry : partitions.entrySet()) {
+            Partition partition = entry.getValue();
+            if (!now.isAfter(entry.getKey() * partitionSeconds, 0)) {
+                result.addAll(partition.flights);
+            } else if (!partition.departedBefore(now)) {
+                for (Flight flight : partition.flights) {
+                    if (!departedBefore(flight, now)) {
+                        result.add(flight);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops every partition whose flights have all departed, together with the flights without segments.
+     * The dropped flights no longer appear in {@link #departed()}; departed flights of partitions
+     * that still hold live flights stay until the whole partition has departed.
+     *
+     * @return number of dropped flights
+     */
+    public synchronized int retireDeparted() {
+        Moment now = now();
+        int retired = withoutSegments.size();
+        withoutSegments.clear();
+        Iterator<Map.Entry<Long, Partition>> iterator = partitions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Partition> entry = iterator.next();
+            if (!now.isAfter(entry.getKey() * partitionSeconds, 0)) {
+                break;
+            }
+            if (entry.getValue().departedBefore(now)) {
+                retired += entry.getValue().flights.size();
+                iterator.remove();
+            }
+        }
+        size -= retired;
+        retiredCount += retired;
+        return retired;
+    }
+
+    private Moment now() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return new Moment(now.toEpochSecond(ZoneOffset.UTC), now.getNano());
+    }
+
+    private static boolean departedBefore(Flight flight, Moment now) {
+        for (Segment segment : flight.getSegments()) {
+            if (!now.isAfter(segment.getDepartureDate())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Local date-time as UTC epoch seconds and nanos, comparable without allocation.
+     */
+    private record Moment(long second, int nano) {
+
+        boolean isAfter(LocalDateTime dateTime) {
+            return isAfter(dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano());
+        }
+
+        boolean isAfter(long otherSecond, int otherNano) {
+            return second > otherSecond || (second == otherSecond && nano > otherNano);
+        }
+    }
+
+    private static final class Partition {
+
+        private final List<Flight> flights = new ArrayList<>();
+        private long latestDepartureSecond = Long.MIN_VALUE;
+        private int latestDepartureNano;
+
+        void add(Flight flight) {
+            flights.add(flight);
+            for (Segment segment : flight.getSegments()) {
+                LocalDateTime departure = segment.getDepartureDate();
+                long second = departure.toEpochSecond(ZoneOffset.UTC);
+                if (second > latestDepartureSecond
+                        || (second == latestDepartureSecond && departure.getNano() > latestDepartureNano)) {
+                    latestDepartureSecond = second;
+                    latestDepartureNano = departure.getNano();
+                }
+            }
+        }
+
+        boolean departedBefore(Moment now) {
+            return now.isAfter(latestDepartureSecond, latestDepartureNano);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.gridnine.testing.store;
+
+/**
+ * Portable kernel that builds every mask word from 64 branch-free comparisons.
+ * Words that are already empty are skipped.
+ */
+final class ScalarColumnKernel implements ColumnKernel {
+
+    @Override
+    public void greaterThan(long[] column, int size, long threshold, long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, size - base);
+            long matches = 0;
+            for (int j = 0; j < end; j++) {
+                matches |= (column[base + j] > threshold ? 1L : 0L) << j;
+            }
+            mask[word] = bits & matches;
+        }
+    }
+
+    @Override
+    public void lessThan(long[] column, int size, long threshold, long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, size - base);
+            long matches = 0;
+            for (int j = 0; j < end; j++) {
+                matches |= (column[base + j] < threshold ? 1L : 0L) << j;
+            }
+            mask[word] = bits & matches;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
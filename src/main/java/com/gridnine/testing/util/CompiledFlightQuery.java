@@ -0,0 +1,129 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.dto.FlightFilterCriteria;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.FlightStats;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link FlightFilterRequest} frozen into primitive thresholds over {@link FlightStats}.
+ * Every active {@link FlightCriterion} is compiled once into a condition specialized for its measure and side;
+ * {@link #test(FlightStats)} and {@link #predicates()} evaluate the same conditions, inactive criteria cost nothing.
+ * Compile once and evaluate from any thread.
+ * Date criteria are exact to the nanosecond, durations compare whole minutes like {@code Duration.toMinutes()}.
+ */
+public final class CompiledFlightQuery implements Predicate<Flight> {
+
+    private final FlightFilterCriteria criteria;
+    private final FlightCriterion[] active;
+    private final Condition[] conditions;
+
+    private CompiledFlightQuery(FlightFilterCriteria criteria) {
+        this.criteria = criteria;
+        List<FlightCriterion> activeCriteria = new ArrayList<>();
+        List<Condition> activeConditions = new ArrayList<>();
+        for (FlightCriterion criterion : FlightCriterion.values()) {
+            if (criterion.isActive(criteria)) {
+                activeCriteria.add(criterion);
+                activeConditions.add(condition(criterion, criteria));
+            }
+        }
+        active = activeCriteria.toArray(FlightCriterion[]::new);
+        conditions = activeConditions.toArray(Condition[]::new);
+    }
+
+    public static CompiledFlightQuery compile(FlightFilterRequest filterRequest) {
+        return new CompiledFlightQuery(FlightFilterCriteria.of(filterRequest));
+    }
+
+    public static CompiledFlightQuery compile(FlightFilterCriteria criteria) {
+        return new CompiledFlightQuery(criteria);
+    }
+
+    public FlightFilterCriteria criteria() {
+        return criteria;
+    }
+
+    /**
+     * Returns {@code true} when no criterion is active and every flight matches.
+     */
+    public boolean matchesAll() {
+        return conditions.length == 0;
+    }
+
+    @Override
+    public boolean test(Flight flight) {
+        return test(flight.getStats());
+    }
+
+    public boolean test(FlightStats stats) {
+        for (Condition condition : conditions) {
+            if (!condition.test(stats)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits the active criteria into named predicates over the same conditions, e.g. for a {@link FlightPredicateChain}.
+     */
+    public List<FlightPredicate> predicates() {
+        List<FlightPredicate> filters = new ArrayList<>(conditions.length);
+        for (int i = 0; i < conditions.length; i++) {
+            Condition condition = conditions[i];
+            filters.add(new FlightPredicate(active[i].criterionName(), flight -> condition.test(flight.getStats())));
+        }
+        return filters;
+    }
+
+    private static Condition condition(FlightCriterion criterion, FlightFilterCriteria criteria) {
+        boolean below = criterion.below();
+        if (criterion.measure().isTime()) {
+            LocalDateTime threshold = criterion.time(criteria);
+            long second = threshold.toEpochSecond(ZoneOffset.UTC);
+            int nano = threshold.getNano();
+            boolean departure = criterion.measure() == FlightCriterion.Measure.EARLIEST_DEPARTURE;
+            ToLongFunction<FlightStats> seconds = departure
+                    ? FlightStats::earliestDepartureSecond : FlightStats::latestArrivalSecond;
+            ToIntFunction<FlightStats> nanos = departure
+                    ? FlightStats::earliestDepartureNano : FlightStats::latestArrivalNano;
+            return below
+                    ? stats -> isBefore(seconds.applyAsLong(stats), nanos.applyAsInt(stats), second, nano)
+                    : stats -> isBefore(second, nano, seconds.applyAsLong(stats), nanos.applyAsInt(stats));
+        }
+        long threshold = criterion.amount(criteria);
+        ToLongFunction<FlightStats> value = switch (criterion.measure()) {
+            case GROUND_MINUTES -> FlightStats::groundMinutes;
+            case AIR_MINUTES -> FlightStats::airMinutes;
+            case FLIGHT_MINUTES -> FlightStats::flightMinutes;
+            case STOPS -> FlightStats::stops;
+            case EARLIEST_DEPARTURE, LATEST_ARRIVAL -> throw new IllegalStateException(criterion.name());
+        };
+        return below
+                ? stats -> value.applyAsLong(stats) < threshold
+                : stats -> value.applyAsLong(stats) > threshold;
+    }
+
+    private static boolean isBefore(long second, int nano, long otherSecond, int otherNano) {
+        return second < otherSecond || (second == otherSecond && nano < otherNano);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledFlightQuery" + criteria;
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean test(FlightStats stats);
+    }
+}
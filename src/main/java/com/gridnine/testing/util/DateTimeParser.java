@@ -0,0 +1,107 @@
+package com.gridnine.testing.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Allocation-free parser of the fixed {@code yyyy-MM-dd'T'HH:mm} layout into epoch minutes (UTC).
+ */
+public final class DateTimeParser {
+
+    public static final int LENGTH = 16;
+
+    private DateTimeParser() {
+    }
+
+    public static LocalDateTime parse(CharSequence text) {
+        return EpochMinutes.toLocalDateTime(parseEpochMinutes(text));
+    }
+
+    public static long parseEpochMinutes(CharSequence text) {
+        if (text.length() != LENGTH) {
+            throw new DateTimeParseException("Text '" + text + "' has wrong length, expected yyyy-MM-dd'T'HH:mm", text, 0);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+            throw new DateTimeParseException("Text '" + text + "' does not match yyyy-MM-dd'T'HH:mm", text, 0);
+        }
+        return toEpochMinutes(year, month, day, hour, minute, text);
+    }
+
+    /**
+     * Parses {@link #LENGTH} ASCII bytes starting at {@code offset}.
+     */
+    public static long parseEpochMinutes(byte[] bytes, int offset) {
+        int year = digits(bytes, offset, 4);
+        int month = digits(bytes, offset + 5, 2);
+        int day = digits(bytes, offset + 8, 2);
+        int hour = digits(bytes, offset + 11, 2);
+        int minute = digits(bytes, offset + 14, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0
+                || bytes[offset + 4] != '-' || bytes[offset + 7] != '-'
+                || bytes[offset + 10] != 'T' || bytes[offset + 13] != ':') {
+            String text = new String(bytes, offset, LENGTH, StandardCharsets.US_ASCII);
+            throw new DateTimeParseException("Text '" + text + "' does not match yyyy-MM-dd'T'HH:mm", text, 0);
+        }
+        return toEpochMinutes(year, month, day, hour, minute, null);
+    }
+
+    private static long toEpochMinutes(int year, int month, int day, int hour, int minute, CharSequence text) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59) {
+            String value = text != null ? text.toString()
+                    : String.format("%04d-%02d-%02dT%02d:%02d", year, month, day, hour, minute);
+            throw new DateTimeParseException("Text '" + value + "' is not a valid date-time", value, 0);
+        }
+        return epochDay(year, month, day) * 1440 + hour * 60L + minute;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(byte[] bytes, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.gridnine.testing.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between {@link LocalDateTime} and minutes since the epoch (UTC), the time unit of the primitive stores.
+ */
+public final class EpochMinutes {
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Rounds up to the next whole minute, so that {@code minute < ceil(t)} holds exactly when the minute is before t.
+     */
+    public static long ceil(LocalDateTime dateTime) {
+        long floor = of(dateTime);
+        boolean whole = dateTime.getSecond() == 0 && dateTime.getNano() == 0;
+        return whole ? floor : floor + 1;
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
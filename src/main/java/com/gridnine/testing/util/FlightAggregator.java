@@ -0,0 +1,88 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.dto.FlightAggregates;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.model.FlightStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass accumulator of {@link FlightAggregates} over primitive per-flight values.
+ * Accepting a flight allocates nothing; partial aggregators of parallel chunks are merged with {@link #combine}.
+ * Instances are not thread-safe.
+ */
+public final class FlightAggregator {
+
+    private final List<HistogramSpec> histograms;
+    private final long[][] buckets;
+    private final long[] min = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+    private final long[] max = {Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+    private final long[] sum = new long[3];
+    private long count;
+
+    public FlightAggregator(List<HistogramSpec> histograms) {
+        this.histograms = List.copyOf(histograms);
+        buckets = new long[this.histograms.size()][];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new long[this.histograms.get(i).buckets()];
+        }
+    }
+
+    public void accept(FlightStats stats) {
+        accept(stats.airMinutes(), stats.groundMinutes(), stats.flightMinutes(), stats.stops());
+    }
+
+    public void accept(long airMinutes, long groundMinutes, long flightMinutes, long stops) {
+        count++;
+        add(0, airMinutes);
+        add(1, groundMinutes);
+        add(2, flightMinutes);
+        for (int i = 0; i < buckets.length; i++) {
+            HistogramSpec spec = histograms.get(i);
+            buckets[i][spec.bucket(spec.measure().value(airMinutes, groundMinutes, flightMinutes, stops))]++;
+        }
+    }
+
+    /**
+     * Adds the counts of another aggregator with the same histogram specs.
+     */
+    public FlightAggregator combine(FlightAggregator other) {
+        count += other.count;
+        for (int i = 0; i < 3; i++) {
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+            sum[i] += other.sum[i];
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            for (int bucket = 0; bucket < buckets[i].length; bucket++) {
+                buckets[i][bucket] += other.buckets[i][bucket];
+            }
+        }
+        return this;
+    }
+
+    public FlightAggregates result() {
+        List<FlightAggregates.Histogram> result = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            List<Long> counts = new ArrayList<>(buckets[i].length);
+            for (long bucketCount : buckets[i]) {
+                counts.add(bucketCount);
+            }
+            result.add(new FlightAggregates.Histogram(histograms.get(i), List.copyOf(counts)));
+        }
+        return new FlightAggregates(count, summary(0), summary(1), summary(2), List.copyOf(result));
+    }
+
+    private void add(int measure, long value) {
+        min[measure] = Math.min(min[measure], value);
+        max[measure] = Math.max(max[measure], value);
+        sum[measure] += value;
+    }
+
+    private FlightAggregates.Summary summary(int measure) {
+        return count > 0
+                ? new FlightAggregates.Summary(min[measure], max[measure], sum[measure], count)
+                : new FlightAggregates.Summary(0, 0, 0, 0);
+    }
+}
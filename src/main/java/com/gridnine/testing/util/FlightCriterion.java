@@ -0,0 +1,92 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.dto.FlightFilterCriteria;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * The filter criteria of a {@link FlightFilterCriteria} as one table: the per-flight value each criterion compares
+ * and on which side of its threshold a matching flight lies.
+ * {@link CompiledFlightQuery} and {@code FlightStoreQuery} are both built from this table.
+ * Constants are in the order in which criteria are reported, e.g. by {@link CompiledFlightQuery#predicates()}.
+ */
+public enum FlightCriterion {
+    BEFORE_DEPARTURE("beforeDeparture", Measure.EARLIEST_DEPARTURE, true, FlightFilterCriteria::beforeDeparture),
+    AFTER_DEPARTURE("afterDeparture", Measure.EARLIEST_DEPARTURE, false, FlightFilterCriteria::afterDeparture),
+    BEFORE_ARRIVAL("beforeArrival", Measure.LATEST_ARRIVAL, true, FlightFilterCriteria::beforeArrival),
+    AFTER_ARRIVAL("afterArrival", Measure.LATEST_ARRIVAL, false, FlightFilterCriteria::afterArrival),
+    MAX_GROUND_TIME("maxGroundTime", Measure.GROUND_MINUTES, false, FlightFilterCriteria::maxGroundMinutes),
+    MIN_GROUND_TIME("minGroundTime", Measure.GROUND_MINUTES, true, FlightFilterCriteria::minGroundMinutes),
+    MIN_FLIGHT_DURATION("minFlightDuration", Measure.FLIGHT_MINUTES, true, FlightFilterCriteria::minFlightMinutes),
+    MAX_FLIGHT_DURATION("maxFlightDuration", Measure.FLIGHT_MINUTES, false, FlightFilterCriteria::maxFlightMinutes),
+    MIN_AIR_DURATION("minAirDuration", Measure.AIR_MINUTES, true, FlightFilterCriteria::minAirMinutes),
+    MAX_AIR_DURATION("maxAirDuration", Measure.AIR_MINUTES, false, FlightFilterCriteria::maxAirMinutes),
+    MIN_STOPS("minStops", Measure.STOPS, true, criteria -> criteria.minStops() > 0 ? criteria.minStops() : null),
+    MAX_STOPS("maxStops", Measure.STOPS, false, criteria -> criteria.maxStops() > 0 ? criteria.maxStops() : null);
+
+    /**
+     * Per-flight value a criterion compares. Time measures are instants, the others whole minutes or a count.
+     */
+    public enum Measure {
+        EARLIEST_DEPARTURE,
+        LATEST_ARRIVAL,
+        GROUND_MINUTES,
+        AIR_MINUTES,
+        FLIGHT_MINUTES,
+        STOPS;
+
+        public boolean isTime() {
+            return this == EARLIEST_DEPARTURE || this == LATEST_ARRIVAL;
+        }
+    }
+
+    private final String criterionName;
+    private final Measure measure;
+    private final boolean below;
+    private final Function<FlightFilterCriteria, ?> threshold;
+
+    FlightCriterion(String criterionName, Measure measure, boolean below, Function<FlightFilterCriteria, ?> threshold) {
+        this.criterionName = criterionName;
+        this.measure = measure;
+        this.below = below;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Name of the criterion as in {@link com.gridnine.testing.dto.FlightFilterRequest}.
+     */
+    public String criterionName() {
+        return criterionName;
+    }
+
+    public Measure measure() {
+        return measure;
+    }
+
+    /**
+     * {@code true} when a matching flight's value is strictly less than the threshold,
+     * {@code false} when it is strictly greater.
+     */
+    public boolean below() {
+        return below;
+    }
+
+    public boolean isActive(FlightFilterCriteria criteria) {
+        return threshold.apply(criteria) != null;
+    }
+
+    /**
+     * Threshold of an active criterion over a time measure.
+     */
+    public LocalDateTime time(FlightFilterCriteria criteria) {
+        return (LocalDateTime) threshold.apply(criteria);
+    }
+
+    /**
+     * Threshold of an active criterion over minutes or stops.
+     */
+    public long amount(FlightFilterCriteria criteria) {
+        return ((Number) threshold.apply(criteria)).longValue();
+    }
+}
@@ -4,5 +4,12 @@ import com.gridnine.testing.model.Flight;
 
 import java.util.function.Predicate;
 
-public record FlightPredicate(Predicate<Flight> predicate) {
+/**
+ * Single named filter criterion.
+ */
+public record FlightPredicate(String name, Predicate<Flight> predicate) {
+
+    public FlightPredicate(Predicate<Flight> predicate) {
+        this("", predicate);
+    }
 }
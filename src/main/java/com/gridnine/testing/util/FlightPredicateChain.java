@@ -0,0 +1,127 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.model.Flight;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Conjunction of {@link FlightPredicate}s evaluated most selective first.
+ * The initial order is estimated from a sample of the dataset, afterwards it is adjusted
+ * from the pass rates observed during evaluation. Evaluation costs are not measured: predicates are taken
+ * to cost the same, which holds for compiled criteria. Instances are not thread-safe.
+ */
+public final class FlightPredicateChain implements Predicate<Flight> {
+
+    private static final int SAMPLE_SIZE = 256;
+    private static final int REORDER_INTERVAL = 1024;
+
+    private final FlightPredicate[] predicates;
+    private final long[] evaluated;
+    private final long[] passed;
+    private long tested;
+
+    private FlightPredicateChain(FlightPredicate[] predicates, long[] evaluated, long[] passed) {
+        this.predicates = predicates;
+        this.evaluated = evaluated;
+        this.passed = passed;
+    }
+
+    /**
+     * Builds the chain, seeding pass rates by evaluating every predicate on at most {@value #SAMPLE_SIZE} flights
+     * spread evenly over the list.
+     */
+    public static FlightPredicateChain plan(List<FlightPredicate> filters, List<Flight> flights) {
+        FlightPredicate[] predicates = filters.toArray(new FlightPredicate[0]);
+        long[] evaluated = new long[predicates.length];
+        long[] passed = new long[predicates.length];
+
+        if (predicates.length > 1 && !flights.isEmpty()) {
+            int size = flights.size();
+            int samples = Math.min(size, SAMPLE_SIZE);
+            for (int i = 0; i < samples; i++) {
+                Flight flight = flights.get((int) ((long) i * size / samples));
+                for (int p = 0; p < predicates.length; p++) {
+                    evaluated[p]++;
+                    if (predicates[p].predicate().test(flight)) {
+                        passed[p]++;
+                    }
+                }
+            }
+        }
+
+        FlightPredicateChain chain = new FlightPredicateChain(predicates, evaluated, passed);
+        chain.reorder();
+        return chain;
+    }
+
+    /**
+     * Returns an independent chain with the current order and statistics, e.g. for another thread.
+     */
+    public FlightPredicateChain copy() {
+        return new FlightPredicateChain(predicates.clone(), evaluated.clone(), passed.clone());
+    }
+
+    /**
+     * Returns an independent chain with the current order and statistics over the mapped predicates,
+     * e.g. instrumented ones after planning on the plain predicates.
+     */
+    public FlightPredicateChain map(UnaryOperator<FlightPredicate> mapper) {
+        FlightPredicate[] mapped = new FlightPredicate[predicates.length];
+        for (int p = 0; p < predicates.length; p++) {
+            mapped[p] = mapper.apply(predicates[p]);
+        }
+        return new FlightPredicateChain(mapped, evaluated.clone(), passed.clone());
+    }
+
+    public List<FlightPredicate> order() {
+        return List.of(predicates);
+    }
+
+    @Override
+    public boolean test(Flight flight) {
+        if (++tested % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        for (int p = 0; p < predicates.length; p++) {
+            evaluated[p]++;
+            if (!predicates[p].predicate().test(flight)) {
+                return false;
+            }
+            passed[p]++;
+        }
+        return true;
+    }
+
+    /**
+     * Sorts predicates by ascending smoothed pass rate, the optimal order for independent conjunctive predicates
+     * of equal cost; compiled criteria all read one precomputed {@link com.gridnine.testing.model.FlightStats} field.
+     */
+    private void reorder() {
+        if (predicates.length < 2) {
+            return;
+        }
+        Integer[] order = new Integer[predicates.length];
+        double[] rank = new double[predicates.length];
+        for (int p = 0; p < predicates.length; p++) {
+            order[p] = p;
+            rank[p] = (passed[p] + 1.0) / (evaluated[p] + 2.0);
+        }
+        Arrays.sort(order, Comparator.comparingDouble(p -> rank[p]));
+
+        FlightPredicate[] sortedPredicates = new FlightPredicate[predicates.length];
+        long[] sortedEvaluated = new long[predicates.length];
+        long[] sortedPassed = new long[predicates.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedPredicates[i] = predicates[order[i]];
+            sortedEvaluated[i] = evaluated[order[i]];
+            sortedPassed[i] = passed[order[i]];
+        }
+        System.arraycopy(sortedPredicates, 0, predicates, 0, predicates.length);
+        System.arraycopy(sortedEvaluated, 0, evaluated, 0, predicates.length);
+        System.arraycopy(sortedPassed, 0, passed, 0, predicates.length);
+    }
+}
@@ -0,0 +1,132 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.dto.FlightCursor;
+
+import java.util.Arrays;
+
+/**
+ * Bounded max-heap over primitive {@code (key, nano, id)} entries that retains the first {@code capacity}
+ * entries in query order, in {@code O(log capacity)} per offer. Descending order is the exact reverse
+ * of ascending order, the id included. Storage grows on demand, so a large capacity costs nothing up front.
+ * Instances are not thread-safe.
+ */
+public final class TopKHeap {
+
+    private final int capacity;
+    private final boolean descending;
+    private long[] keys;
+    private int[] nanos;
+    private int[] ids;
+    private int size;
+
+    public TopKHeap(int capacity, boolean descending) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.descending = descending;
+        int initial = Math.min(capacity, 64);
+        keys = new long[initial];
+        nanos = new int[initial];
+        ids = new int[initial];
+    }
+
+    /**
+     * Compares two entries in query order.
+     */
+    public static int compare(long key, int nano, int id, long otherKey, int otherNano, int otherId, boolean descending) {
+        int result = Long.compare(key, otherKey);
+        if (result == 0) {
+            result = Integer.compare(nano, otherNano);
+        }
+        if (result == 0) {
+            result = Integer.compare(id, otherId);
+        }
+        return descending ? -result : result;
+    }
+
+    /**
+     * Returns {@code true} when the entry comes strictly after the cursor in query order.
+     */
+    public static boolean isAfter(long key, int nano, int id, FlightCursor cursor, boolean descending) {
+        return compare(key, nano, id, cursor.key(), cursor.nano(), cursor.position(), descending) > 0;
+    }
+
+    public void offer(long key, int nano, int id) {
+        if (size < capacity) {
+            if (size == keys.length) {
+                int grown = (int) Math.min(capacity, keys.length * 2L);
+                keys = Arrays.copyOf(keys, grown);
+                nanos = Arrays.copyOf(nanos, grown);
+                ids = Arrays.copyOf(ids, grown);
+            }
+            set(size, key, nano, id);
+            siftUp(size++);
+        } else if (compare(key, nano, id, keys[0], nanos[0], ids[0], descending) < 0) {
+            set(0, key, nano, id);
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap and returns the retained ids in query order.
+     */
+    public int[] drainSorted() {
+        int[] result = new int[size];
+        while (size > 0) {
+            result[size - 1] = ids[0];
+            size--;
+            if (size > 0) {
+                set(0, keys[size], nanos[size], ids[size]);
+                siftDown(0);
+            }
+        }
+        return result;
+    }
+
+    private void siftUp(int index) {
+        long key = keys[index];
+        int nano = nanos[index];
+        int id = ids[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(key, nano, id, keys[parent], nanos[parent], ids[parent], descending) <= 0) {
+                break;
+            }
+            set(index, keys[parent], nanos[parent], ids[parent]);
+            index = parent;
+        }
+        set(index, key, nano, id);
+    }
+
+    private void siftDown(int index) {
+        long key = keys[index];
+        int nano = nanos[index];
+        int id = ids[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && compare(keys[right], nanos[right], ids[right],
+                    keys[child], nanos[child], ids[child], descending) > 0) {
+                child = right;
+            }
+            if (compare(key, nano, id, keys[child], nanos[child], ids[child], descending) >= 0) {
+                break;
+            }
+            set(index, keys[child], nanos[child], ids[child]);
+            index = child;
+        }
+        set(index, key, nano, id);
+    }
+
+    private void set(int index, long key, int nano, int id) {
+        keys[index] = key;
+        nanos[index] = nano;
+        ids[index] = id;
+    }
+}
@@ -0,0 +1,161 @@
+package com.gridnine.testing.cluster;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightMeasure;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.dto.SortDirection;
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScatterGatherFlightFilterServiceTest {
+
+    private static final int SHARDS = 3;
+
+    private static final List<Process> processes = new ArrayList<>();
+    private static final FlightFilterService local = new FlightFilterServiceImpl();
+    private static final List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(22, 20_000)
+            .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+    private static ScatterGatherFlightFilterService service;
+
+    @BeforeAll
+    static void startShards() throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < SHARDS; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    FlightShardServer.class.getName(), "0")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            processes.add(process);
+            BufferedReader stdout = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            int port = Integer.parseInt(stdout.readLine().trim());
+            addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        }
+        service = ScatterGatherFlightFilterService.connect(addresses, local);
+    }
+
+    @AfterAll
+    static void stopShards() throws IOException {
+        if (service != null) {
+            service.close();
+        }
+        processes.forEach(Process::destroy);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ScatterGatherFlightFilterService.Partitioning.class)
+    @DisplayName("Проверка распределённой фильтрации по процессам-шардам против локальной")
+    void applyFilter_ShouldMatchLocalService(ScatterGatherFlightFilterService.Partitioning partitioning) {
+        service.load(flights, partitioning);
+        FlightFilterRequest byGround = new FlightFilterRequest();
+        byGround.setMaxGroundTime(Duration.ofMinutes(90));
+        FlightFilterRequest byWindow = new FlightFilterRequest();
+        byWindow.setAfterDeparture(LocalDateTime.of(2024, 3, 4, 0, 0));
+        byWindow.setBeforeDeparture(LocalDateTime.of(2024, 3, 5, 0, 0));
+        byWindow.setMaxStops(1);
+        List<FlightFilterRequest> requests = List.of(byGround, byWindow, new FlightFilterRequest());
+        List<HistogramSpec> histograms = List.of(new HistogramSpec(FlightMeasure.FLIGHT_MINUTES, 120, 10));
+
+        for (FlightFilterRequest request : requests) {
+            assertEquals(local.applyFilter(flights, request), service.applyFilter(flights, request));
+            assertEquals(local.aggregate(flights, request, histograms), service.aggregate(flights, request, histograms));
+        }
+        assertEquals(local.applyFilters(flights, requests), service.applyFilters(flights, requests));
+    }
+
+    @Test
+    @DisplayName("Проверка слияния страниц с разных шардов по ключу сортировки")
+    void applyFilter_ShouldMergePagesAcrossShards() {
+        service.load(flights, ScatterGatherFlightFilterService.Partitioning.HASH);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxStops(2);
+
+        for (SortDirection direction : SortDirection.values()) {
+            List<Flight> expected = new ArrayList<>();
+            List<Flight> actual = new ArrayList<>();
+            FlightPageRequest first = FlightPageRequest.of(FlightSortKey.GROUND_TIME, direction, 500).withOffset(7);
+            for (FlightPageRequest page = first; page != null; ) {
+                FlightPage result = local.applyFilter(flights, filterRequest, page);
+                expected.addAll(result.flights());
+                page = page.next(result);
+            }
+            for (FlightPageRequest page = first; page != null; ) {
+                FlightPage result = service.applyFilter(flights, filterRequest, page);
+                actual.addAll(result.flights());
+                page = page.next(result);
+            }
+            assertTrue(expected.size() > 100);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка запросов во время перезагрузки шардов с другим разбиением")
+    void applyFilter_ShouldNotMixLoadsWhileReloading() throws Exception {
+        service.load(flights, ScatterGatherFlightFilterService.Partitioning.HASH);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        List<Flight> expected = local.applyFilter(flights, filterRequest);
+        ExecutorService loader = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> loads = loader.submit(() -> {
+                for (int i = 0; i < 6; i++) {
+                    service.load(flights, ScatterGatherFlightFilterService.Partitioning.values()[i % 2]);
+                }
+            });
+            while (!loads.isDone()) {
+                assertEquals(expected, service.applyFilter(flights, filterRequest));
+            }
+            loads.get();
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка локальной обработки незагруженного списка")
+    void applyFilter_ShouldServeOtherListsLocally() {
+        service.load(flights, ScatterGatherFlightFilterService.Partitioning.TIME_RANGE);
+        List<Flight> other = FlightBuilder.createFlights();
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+
+        List<Flight> result = service.applyFilter(other, filterRequest);
+
+        assertEquals(other, result);
+        assertSame(other.get(0), result.get(0));
+        assertEquals(SHARDS, service.shardCount());
+    }
+}
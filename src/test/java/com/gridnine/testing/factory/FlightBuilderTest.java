@@ -0,0 +1,89 @@
+package com.gridnine.testing.factory;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import com.gridnine.testing.store.FlightStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightBuilderTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Test
+    @DisplayName("Проверка воспроизводимости расписания по зерну")
+    void createFlights_ShouldBeReproducibleForSeed() {
+        ScheduleConfig config = ScheduleConfig.builder(7, 1000).start(START).build();
+
+        List<Flight> flights = FlightBuilder.createFlights(config);
+        FlightStore store = FlightBuilder.createStore(config);
+
+        assertEquals(1000, flights.size());
+        assertEquals(1000, store.size());
+        assertEquals(flights.toString(), FlightBuilder.createFlights(config).toString());
+        for (int i = 0; i < flights.size(); i++) {
+            assertEquals(flights.get(i).toString(), store.getFlight(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка доли аномальных перелётов в расписании")
+    void createFlights_ShouldGenerateConfiguredAnomalies() {
+        Clock clock = Clock.fixed(Instant.parse("2024-03-01T15:30:00Z"), ZoneOffset.UTC);
+        ScheduleConfig config = ScheduleConfig.builder(11, 20_000)
+                .clock(clock)
+                .anomalies(0.1, 0.05, 0.2)
+                .build();
+        List<Flight> flights = FlightBuilder.createFlights(config);
+        FlightFilterService flightFilterService = new FlightFilterServiceImpl(null, Integer.MAX_VALUE, clock);
+
+        assertEquals(LocalDateTime.of(2024, 3, 2, 0, 0), config.getStart());
+        assertTrue(flights.stream().anyMatch(flight -> flight.getSegments().size() > 2));
+
+        double past = flightFilterService.filterFromCurrentTime(flights).size() / 20_000.0;
+        double backward = flightFilterService.filterArrivalBeforeDeparture(flights).size() / 20_000.0;
+        double longGround = flightFilterService.filterMoreThanTwoHoursGroundTime(flights).size() / 20_000.0;
+
+        assertEquals(0.1, past, 0.01);
+        assertEquals(0.05, backward, 0.01);
+        assertEquals(0.2, longGround, 0.01);
+    }
+
+    @Test
+    @DisplayName("Проверка вылета обычных рейсов не раньше начала расписания")
+    void createFlights_ShouldNotDepartRegularFlightsBeforeStart() {
+        Clock clock = Clock.fixed(Instant.parse("2024-03-01T15:30:00Z"), ZoneOffset.UTC);
+        ScheduleConfig config = ScheduleConfig.builder(13, 5000)
+                .clock(clock)
+                .waves(600, 0)
+                .anomalies(0, 0, 0)
+                .build();
+
+        List<Flight> flights = FlightBuilder.createFlights(config);
+
+        assertTrue(flights.stream().allMatch(flight -> flight.getSegments().stream()
+                .noneMatch(segment -> segment.getDepartureDate().isBefore(config.getStart()))));
+        assertTrue(new FlightFilterServiceImpl(null, Integer.MAX_VALUE, clock).filterFromCurrentTime(flights).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ScheduleConfig.builder(1, 10).waves(-1, 12));
+    }
+
+    @Test
+    @DisplayName("Проверка отказа при некорректных долях аномалий")
+    void anomalies_ShouldRejectSharesAboveOne() {
+        ScheduleConfig.Builder builder = ScheduleConfig.builder(1, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.anomalies(0.5, 0.3, 0.3));
+        assertTrue(FlightBuilder.createFlights(ScheduleConfig.builder(1, 0).build()).isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.gridnine.testing.ingest;
+
+import com.gridnine.testing.model.Flight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlightIngestTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Проверка загрузки перелётов из CSV")
+    void readCsv_ShouldLoadFlights() throws IOException {
+        Path path = directory.resolve("flights.csv");
+        Files.writeString(path, """
+                # departure,arrival,...
+                2024-03-01T10:00,2024-03-01T12:00
+                2024-03-01T10:00,2024-03-01T12:00,2024-03-01T13:00,2024-03-01T15:00\r
+
+                2024-03-02T08:00,2024-03-02T09:30""");
+
+        IngestResult result = FlightIngest.readCsv(path);
+
+        assertEquals(3, result.rows());
+        assertEquals(4, result.segments());
+        Flight flight = result.store().getFlight(1);
+        assertEquals(2, flight.getSegments().size());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 15, 0), flight.getSegments().get(1).getArrivalDate());
+        assertEquals(90, result.store().getFlight(2).getStats().airMinutes());
+    }
+
+    @Test
+    @DisplayName("Проверка отказа при нечётном количестве дат в CSV")
+    void readCsv_ShouldRejectOddDates() throws IOException {
+        Path path = directory.resolve("odd.csv");
+        Files.writeString(path, "2024-03-01T10:00,2024-03-01T12:00\n2024-03-01T10:00\n");
+
+        IOException exception = assertThrows(IOException.class, () -> FlightIngest.readCsv(path));
+        assertEquals("line 2: you must pass an even number of dates", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Проверка потоковой загрузки перелётов из JSON")
+    void readJson_ShouldLoadFlights() throws IOException {
+        Path path = directory.resolve("flights.json");
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            json.append(i == 0 ? "" : ",").append("""
+                    {"id": %d, "tags": ["a", {"b": null}], "segments": [
+                      {"departure": "2024-03-01T10:00", "arrival": "2024-03-01T12:00", "code": "SU 100"},
+                      {"arrival": "2024-03-01T15:00", "departure": "2024-03-01T13:00"}
+                    ], "price": -1.5e3}""".formatted(i));
+        }
+        json.append(", {\"segments\": []}]");
+        Files.writeString(path, json);
+
+        IngestResult result = FlightIngest.readJson(path);
+
+        assertEquals(5001, result.rows());
+        assertEquals(10_000, result.segments());
+        assertEquals(60, result.store().getFlight(4999).getStats().groundMinutes());
+        assertEquals(0, result.store().getFlight(5000).getSegments().size());
+    }
+
+    @Test
+    @DisplayName("Проверка отказа при некорректном JSON")
+    void readJson_ShouldRejectMalformedInput() throws IOException {
+        Path path = directory.resolve("broken.json");
+        Files.writeString(path, "[{\"segments\": [{\"departure\": \"2024-03-01T10:00\"}]}]");
+
+        assertThrows(IOException.class, () -> FlightIngest.readJson(path));
+    }
+}
@@ -0,0 +1,102 @@
+package com.gridnine.testing.metrics;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import com.gridnine.testing.store.FlightStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterMetricsTest {
+
+    @Test
+    @DisplayName("Проверка перцентилей логарифмической гистограммы")
+    void percentile_ShouldStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(0, new LatencyHistogram().percentile(0.5));
+        assertEquals(5000.5, histogram.mean(), 1e-9);
+        assertBetween(5000, 5000 * 1.125, histogram.percentile(0.5));
+        assertBetween(9900, 9900 * 1.125, histogram.percentile(0.99));
+        assertEquals(1, histogram.percentile(0));
+        for (int bucket = 1; bucket <= LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.upperBound(bucket)));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка счётчиков фильтров и их публикации через JMX")
+    void applyFilter_ShouldCountEvaluationsAndPublishMBeans() throws Exception {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(21, 5_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        FilterMetrics metrics = new FilterMetrics("test");
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.register(server);
+        FlightFilterService service = new FlightFilterServiceImpl(null, Integer.MAX_VALUE,
+                Clock.systemDefaultZone(), metrics);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setMaxStops(1);
+
+        try {
+            int matched = service.applyFilter(flights, filterRequest).size();
+            PredicateMetrics ground = metrics.predicate("maxGroundTime");
+
+            assertEquals(1L, server.getAttribute(metrics.objectName(null), "Calls"));
+            assertEquals((long) flights.size(), server.getAttribute(metrics.objectName(null), "FlightsScanned"));
+            assertEquals((long) matched, metrics.getFlightsMatched());
+            assertTrue(metrics.getFlightsPerSecond() > 0);
+            assertTrue(ground.getEvaluations() >= matched);
+            assertEquals(ground.getEvaluations(), ground.getPassed() + ground.getRejected());
+            assertEquals(flights.size() - matched,
+                    ground.getRejected() + metrics.predicate("maxStops").getRejected());
+            assertEquals(ground.getRejected(),
+                    server.getAttribute(metrics.objectName("maxGroundTime"), "Rejected"));
+            assertTrue(server.isRegistered(metrics.objectName("maxStops")));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(metrics.objectName(null)));
+        assertFalse(server.isRegistered(metrics.objectName("maxStops")));
+    }
+
+    @Test
+    @DisplayName("Проверка учёта только проверенных перелётов при индексном поиске в хранилище")
+    void applyFilter_ShouldCountOnlyTestedStoreFlights() {
+        FlightStore store = FlightBuilder.createStore(ScheduleConfig.builder(22, 5_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        FilterMetrics metrics = new FilterMetrics("store");
+        FlightFilterService service = new FlightFilterServiceImpl(null, Integer.MAX_VALUE,
+                Clock.systemDefaultZone(), metrics);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setAfterDeparture(LocalDateTime.of(2024, 3, 2, 0, 0));
+        filterRequest.setBeforeDeparture(LocalDateTime.of(2024, 3, 3, 0, 0));
+
+        int matched = service.applyFilter(store, filterRequest).size();
+
+        assertEquals(matched, metrics.getFlightsMatched());
+        assertTrue(metrics.getFlightsScanned() >= matched);
+        assertTrue(metrics.getFlightsScanned() < store.size());
+    }
+
+    private static void assertBetween(double low, double high, long actual) {
+        assertTrue(actual >= low && actual <= high, actual + " not in [" + low + ", " + high + "]");
+    }
+}
@@ -0,0 +1,51 @@
+package com.gridnine.testing.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlightStatsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    @DisplayName("Проверка расчёта агрегатов перелёта")
+    void of_ShouldCalculateAggregates() {
+        FlightStats stats = FlightStats.of(List.of(
+                new Segment(BASE, BASE.plusHours(2)),
+                new Segment(BASE.plusHours(3), BASE.plusHours(5)),
+                new Segment(BASE.plusHours(8), BASE.plusHours(7))));
+
+        long base = BASE.toEpochSecond(ZoneOffset.UTC);
+        assertEquals(new FlightStats(2, 240, 180, 420, 1, base, 0, base + 7 * 3600, 0), stats);
+    }
+
+    @Test
+    @DisplayName("Проверка усечения неполных минут как у Duration")
+    void of_ShouldTruncateLikeDuration() {
+        LocalDateTime departure = BASE.plusSeconds(30).plusNanos(5);
+        LocalDateTime arrival = BASE.plusMinutes(2).plusSeconds(29);
+        LocalDateTime backwardArrival = BASE.minusSeconds(59).minusNanos(1);
+
+        FlightStats stats = FlightStats.of(List.of(
+                new Segment(departure, arrival),
+                new Segment(BASE, backwardArrival)));
+
+        assertEquals(Duration.between(departure, arrival).toMinutes()
+                + Duration.between(BASE, backwardArrival).toMinutes(), stats.airMinutes());
+        assertEquals(Duration.between(arrival, BASE).toMinutes(), stats.groundMinutes());
+        assertEquals(Duration.between(departure, backwardArrival).toMinutes(), stats.flightMinutes());
+    }
+
+    @Test
+    @DisplayName("Проверка агрегатов перелёта без сегментов")
+    void of_ShouldHandleEmptySegments() {
+        assertEquals(new FlightStats(-1, 0, 0, 0, 0, Long.MAX_VALUE, 0, Long.MIN_VALUE, 0), FlightStats.of(List.of()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.gridnine.testing.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SegmentPoolTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private static List<Segment> twoLegs() {
+        return List.of(new Segment(BASE, BASE.plusHours(2)), new Segment(BASE.plusHours(3), BASE.plusHours(5)));
+    }
+
+    @Test
+    @DisplayName("Проверка канонизации одинаковых сегментов")
+    void intern_ShouldReturnCanonicalSegment() {
+        SegmentPool pool = new SegmentPool();
+        Segment first = new Segment(BASE, BASE.plusHours(2));
+        Segment second = new Segment(BASE, BASE.plusHours(2));
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNotSame(first, pool.intern(new Segment(BASE, BASE.plusHours(3))));
+        assertEquals(2, pool.report().uniqueSegments());
+    }
+
+    @Test
+    @DisplayName("Проверка общих сегментов и агрегатов у одинаковых маршрутов")
+    void flight_ShouldShareItinerary() {
+        SegmentPool pool = new SegmentPool();
+        Flight first = pool.flight(twoLegs());
+        Flight second = pool.flight(twoLegs());
+        Flight other = pool.flight(List.of(new Segment(BASE, BASE.plusHours(2))));
+
+        assertSame(first.getSegments(), second.getSegments());
+        assertSame(first.getStats(), second.getStats());
+        assertSame(first.getSegments().get(0), other.getSegments().get(0));
+        assertEquals(new Flight(twoLegs()).getStats(), first.getStats());
+        assertEquals(2, pool.itineraryCount());
+    }
+
+    @Test
+    @DisplayName("Проверка отчёта о сэкономленной памяти")
+    void report_ShouldCountDuplicates() {
+        SegmentPool pool = new SegmentPool();
+        pool.flight(twoLegs());
+        pool.flight(twoLegs());
+        pool.flight(twoLegs());
+
+        SegmentPool.Report report = pool.report();
+        assertEquals(6, report.segments());
+        assertEquals(2, report.uniqueSegments());
+        assertEquals(3, report.itineraries());
+        assertEquals(1, report.uniqueItineraries());
+        assertEquals(4 * SegmentPool.SEGMENT_BYTES
+                + 2 * (SegmentPool.LIST_BYTES + 2 * SegmentPool.LIST_ELEMENT_BYTES + SegmentPool.STATS_BYTES),
+                report.bytesSaved());
+    }
+
+    @Test
+    @DisplayName("Проверка вычисления предиката один раз на маршрут")
+    void memoize_ShouldEvaluateOncePerItinerary() {
+        SegmentPool pool = new SegmentPool();
+        AtomicInteger evaluations = new AtomicInteger();
+        Predicate<Flight> twoSegments = flight -> {
+            evaluations.incrementAndGet();
+            return flight.getSegments().size() == 2;
+        };
+        Predicate<Flight> memo = pool.memoize(twoSegments);
+
+        for (int i = 0; i < 40; i++) {
+            Flight flight = i % 2 == 0
+                    ? pool.flight(twoLegs())
+                    : pool.flight(List.of(new Segment(BASE.plusMinutes(i), BASE.plusHours(1))));
+            assertEquals(flight.getSegments().size() == 2, memo.test(flight));
+            assertEquals(flight.getSegments().size() == 2, memo.test(flight));
+        }
+        assertEquals(21, evaluations.get());
+
+        Flight foreign = new Flight(twoLegs());
+        assertEquals(true, memo.test(foreign));
+        assertEquals(true, new SegmentPool().memoize(twoSegments).test(pool.flight(twoLegs())));
+        assertEquals(23, evaluations.get());
+    }
+}
@@ -0,0 +1,122 @@
+package com.gridnine.testing.output;
+
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.ingest.FlightIngest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.store.FlightStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightResultWriterTest {
+
+    private final List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(24, 3_000)
+            .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+
+    @Test
+    @DisplayName("Проверка JSON с ручным форматированием дат и чтения обратно загрузчиком")
+    void write_ShouldProduceIngestableJson(@TempDir Path directory) throws IOException {
+        Flight flight = new Flight(List.of(
+                new Segment(LocalDateTime.of(2024, 3, 1, 9, 5), LocalDateTime.of(2024, 3, 1, 11, 30)),
+                new Segment(LocalDateTime.of(2024, 12, 31, 23, 59), LocalDateTime.of(2025, 1, 1, 0, 0))));
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        new FlightJsonWriter(buffer).beginArray().write(flight).endArray();
+
+        assertEquals("[{\"segments\":[{\"departure\":\"2024-03-01T09:05\",\"arrival\":\"2024-03-01T11:30\"},"
+                        + "{\"departure\":\"2024-12-31T23:59\",\"arrival\":\"2025-01-01T00:00\"}]}]",
+                new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+
+        Path file = directory.resolve("flights.json");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FlightJsonWriter writer = new FlightJsonWriter(ByteBuffer.allocate(512), channel);
+            writer.beginArray().writeAll(flights).endArray().flush();
+            assertEquals(flights.size(), writer.flights());
+        }
+        FlightStore store = FlightIngest.readJson(file).store();
+        assertEquals(flights.size(), store.size());
+        for (int i = 0; i < flights.size(); i++) {
+            assertEquals(flights.get(i).toString(), store.getFlight(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка двоичного формата через небольшой буфер и канал")
+    void write_ShouldStreamBinaryThroughSmallBuffer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlightBinaryWriter writer = new FlightBinaryWriter(ByteBuffer.allocate(64), Channels.newChannel(out));
+        writer.writeAll(flights).end().flush();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        List<Flight> read = new ArrayList<>();
+        for (int count = in.readInt(); count != FlightBinaryWriter.END; count = in.readInt()) {
+            List<Segment> segments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                segments.add(new Segment(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC),
+                        LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)));
+            }
+            read.add(new Flight(segments));
+        }
+
+        assertEquals(flights.size(), read.size());
+        for (int i = 0; i < flights.size(); i++) {
+            assertEquals(flights.get(i).getSegments().get(0).getDepartureDate(),
+                    read.get(i).getSegments().get(0).getDepartureDate());
+            assertEquals(flights.get(i).toString(), read.get(i).toString());
+        }
+        ByteBuffer whole = ByteBuffer.allocate(out.size());
+        new FlightBinaryWriter(whole).writeAll(flights).end();
+        assertArrayEquals(out.toByteArray(), whole.array());
+        assertThrows(BufferOverflowException.class, () -> new FlightBinaryWriter(ByteBuffer.allocate(64)).writeAll(flights));
+    }
+
+    @Test
+    @DisplayName("Проверка записи без выделения памяти в переиспользуемый буфер")
+    void write_ShouldNotAllocate() throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ByteBuffer buffer = ByteBuffer.allocate(4 << 20);
+        FlightJsonWriter json = new FlightJsonWriter(buffer);
+        FlightBinaryWriter binary = new FlightBinaryWriter(buffer);
+        for (int warmup = 0; warmup < 20; warmup++) {
+            buffer.clear();
+            json.beginArray().writeAll(flights).endArray();
+            buffer.clear();
+            binary.writeAll(flights).end();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int run = 0; run < 10; run++) {
+            buffer.clear();
+            json.beginArray().writeAll(flights).endArray();
+            buffer.clear();
+            binary.writeAll(flights).end();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 4096, allocated + " bytes allocated");
+    }
+}
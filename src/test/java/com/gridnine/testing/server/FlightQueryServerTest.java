@@ -0,0 +1,115 @@
+package com.gridnine.testing.server;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.output.FlightJsonWriter;
+import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightQueryServerTest {
+
+    private final FlightFilterService service = new FlightFilterServiceImpl();
+    private final List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(23, 2_000)
+            .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+    private final HttpClient client = HttpClient.newHttpClient();
+    private FlightQueryServer server;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = FlightQueryServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0,
+                Executors.newFixedThreadPool(4), service, flights);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Проверка разбора критериев из параметров запроса и JSON")
+    void toRequest_ShouldReadQueryAndJson() {
+        FlightFilterRequest fromQuery = FilterRequestParser.toRequest(FilterRequestParser.parseQuery(
+                "afterDeparture=2024-03-02T10%3A00&maxGroundTime=01:30&maxStops=1&limit=5"));
+        FlightFilterRequest fromJson = FilterRequestParser.toRequest(FilterRequestParser.parseJson(
+                "{\"afterDeparture\": \"2024-03-02T10:00\", \"maxGroundTime\": \"PT1H30M\", \"maxStops\": 1, \"minStops\": null}"));
+
+        assertEquals(LocalDateTime.of(2024, 3, 2, 10, 0), fromQuery.getAfterDeparture());
+        assertEquals(Duration.ofMinutes(90), fromQuery.getMaxGroundTime());
+        assertEquals(1, fromQuery.getMaxStops());
+        assertEquals(fromQuery.getAfterDeparture(), fromJson.getAfterDeparture());
+        assertEquals(fromQuery.getMaxGroundTime(), fromJson.getMaxGroundTime());
+        assertEquals(fromQuery.getMaxStops(), fromJson.getMaxStops());
+        assertThrows(IllegalArgumentException.class,
+                () -> FilterRequestParser.toRequest(Map.of("maxGround", "01:00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FilterRequestParser.toRequest(Map.of("afterDeparture", "tomorrow")));
+        assertThrows(IllegalArgumentException.class, () -> FilterRequestParser.parseJson("{\"maxStops\": 1"));
+    }
+
+    @Test
+    @DisplayName("Проверка ответов сервера на GET и POST запросы")
+    void flights_ShouldAnswerGetAndPost() throws Exception {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setMaxStops(1);
+        List<Flight> expected = service.applyFilter(flights, filterRequest);
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(
+                uri("/flights?maxGroundTime=01:30&maxStops=1&limit=2")).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri("/flights?limit=2"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"maxGroundTime\": \"PT90M\", \"maxStops\": 1}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        FlightQueryServer.writeJson(new FlightJsonWriter(buffer), expected, 2);
+        String expectedJson = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertEquals(200, get.statusCode());
+        assertEquals(expectedJson, get.body());
+        assertEquals(expectedJson, post.body());
+        assertTrue(get.body().startsWith("{\"count\":" + expected.size() + ","));
+        assertEquals(400, client.send(HttpRequest.newBuilder(uri("/flights?maxStops=many")).build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(405, client.send(HttpRequest.newBuilder(uri("/flights")).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    @DisplayName("Проверка нагрузочного клиента с параллельными запросами")
+    void run_ShouldReportThroughputAndLatency() throws Exception {
+        LoadTestClient.Result result = LoadTestClient.run(uri("/flights?maxStops=1&limit=10"), 4, 50);
+
+        assertEquals(200, result.requests());
+        assertEquals(0, result.errors());
+        assertTrue(result.requestsPerSecond() > 0);
+        assertTrue(result.p99Nanos() >= result.p50Nanos());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+}
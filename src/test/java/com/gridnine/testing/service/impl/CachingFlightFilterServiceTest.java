@@ -0,0 +1,132 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.FlightFilterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingFlightFilterServiceTest {
+
+    private FlightFilterService delegate;
+    private CachingFlightFilterService cachingService;
+    private List<Flight> flights;
+
+    @BeforeEach
+    public void setup() {
+        delegate = spy(new FlightFilterServiceImpl());
+        cachingService = new CachingFlightFilterService(delegate, 2, 100);
+        flights = FlightBuilder.createFlights();
+    }
+
+    @Test
+    @DisplayName("Проверка попадания в кэш для эквивалентных запросов")
+    void applyFilter_ShouldHitCacheForNormalizedRequest() {
+        FlightFilterRequest first = new FlightFilterRequest();
+        first.setMaxGroundTime(Duration.ofHours(2));
+        FlightFilterRequest second = new FlightFilterRequest();
+        second.setMaxGroundTime(Duration.ofMinutes(120).plusSeconds(30));
+        second.setMinStops(-1);
+
+        List<Flight> result = cachingService.applyFilter(flights, first);
+
+        assertSame(result, cachingService.applyFilter(flights, second));
+        assertEquals(2, result.size());
+        verify(delegate, times(1)).applyFilter(anyList(), any(FlightFilterRequest.class));
+        assertEquals(new CachingFlightFilterService.CacheStats(1, 1, 0, 1, 2), cachingService.stats());
+    }
+
+    @Test
+    @DisplayName("Проверка сброса кэша при смене версии данных")
+    void applyFilter_ShouldMissAfterInvalidation() {
+        List<Flight> schedule = new ArrayList<>(flights);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxStops(1);
+        assertEquals(1, cachingService.applyFilter(schedule, filterRequest).size());
+
+        schedule.remove(schedule.size() - 1);
+        cachingService.invalidate();
+
+        assertEquals(0, cachingService.applyFilter(schedule, filterRequest).size());
+        assertEquals(1, cachingService.datasetVersion());
+        assertEquals(2, cachingService.stats().misses());
+        assertEquals(1, cachingService.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("Проверка вытеснения давно не использованных записей")
+    void applyFilter_ShouldEvictLeastRecentlyUsed() {
+        FlightFilterRequest first = new FlightFilterRequest();
+        first.setMaxStops(1);
+        FlightFilterRequest second = new FlightFilterRequest();
+        second.setMinStops(2);
+        FlightFilterRequest third = new FlightFilterRequest();
+        third.setMaxGroundTime(Duration.ofHours(1));
+
+        cachingService.applyFilter(flights, first);
+        cachingService.applyFilter(flights, second);
+        cachingService.applyFilter(flights, first);
+        cachingService.applyFilter(flights, third);
+        cachingService.applyFilter(flights, first);
+        cachingService.applyFilter(flights, second);
+
+        assertEquals(new CachingFlightFilterService.CacheStats(2, 4, 2, 2, 6), cachingService.stats());
+    }
+
+    @Test
+    @DisplayName("Проверка раздельного кэширования разных наборов перелётов")
+    void applyFilter_ShouldSeparateDatasetsByIdentity() {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        List<Flight> copy = new ArrayList<>(flights);
+
+        cachingService.applyFilter(flights, filterRequest);
+        cachingService.applyFilter(copy, filterRequest);
+
+        assertEquals(2, cachingService.stats().misses());
+    }
+
+    @Test
+    @DisplayName("Проверка пакетного запроса с вычислением только промахов кэша")
+    void applyFilters_ShouldEvaluateOnlyMisses() {
+        FlightFilterRequest first = new FlightFilterRequest();
+        first.setMaxStops(1);
+        FlightFilterRequest second = new FlightFilterRequest();
+        second.setMinStops(2);
+        List<Flight> cached = cachingService.applyFilter(flights, first);
+
+        List<List<Flight>> results = cachingService.applyFilters(flights, List.of(first, second));
+
+        assertSame(cached, results.get(0));
+        assertEquals(delegate.applyFilter(flights, second), results.get(1));
+        verify(delegate).applyFilters(flights, List.of(second));
+        assertSame(results.get(1), cachingService.applyFilter(flights, second));
+    }
+
+    @Test
+    @DisplayName("Проверка ограничений размера кэша")
+    void constructor_ShouldValidateLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingFlightFilterService(delegate, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new CachingFlightFilterService(delegate, 2, -1));
+        CachingFlightFilterService emptyOnly = new CachingFlightFilterService(delegate, 2, 0);
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+
+        emptyOnly.applyFilter(flights, filterRequest);
+
+        assertEquals(0, emptyOnly.stats().entries());
+    }
+}
@@ -1,9 +1,20 @@
 package com.gridnine.testing.service.impl;
 
+import com.gridnine.testing.dto.FilterProfile;
+import com.gridnine.testing.dto.FlightAggregates;
 import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.dto.FlightMeasure;
+import com.gridnine.testing.dto.FlightPage;
+import com.gridnine.testing.dto.FlightPageRequest;
+import com.gridnine.testing.dto.FlightSortKey;
+import com.gridnine.testing.dto.HistogramSpec;
+import com.gridnine.testing.dto.SortDirection;
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
 import com.gridnine.testing.model.Flight;
 import com.gridnine.testing.model.Segment;
 import com.gridnine.testing.service.FlightFilterService;
+import com.gridnine.testing.store.FlightStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,12 +25,23 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -135,6 +157,36 @@ class FlightFilterServiceImplTest {
         assertEquals(expectedSize, result.size());
     }
 
+    @DisplayName("Проверка фильтрации колоночного хранилища по всем полям фильтра")
+    @ParameterizedTest
+    @MethodSource("filterTestData")
+    void filter_ShouldFilterFlightStoreBasedOnFilterRequest(List<Flight> flights,
+                                                            LocalDateTime beforeDeparture, LocalDateTime afterDeparture,
+                                                            LocalDateTime beforeArrival, LocalDateTime afterArrival,
+                                                            Duration maxGroundTime, Duration minGroundTime,
+                                                            Duration maxAirDuration, Duration minAirDuration,
+                                                            Duration minFlightDuration, Duration maxFlightDuration,
+                                                            int minStops, int maxStops, int expectedSize) {
+
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setBeforeDeparture(beforeDeparture);
+        filterRequest.setAfterDeparture(afterDeparture);
+        filterRequest.setBeforeArrival(beforeArrival);
+        filterRequest.setAfterArrival(afterArrival);
+        filterRequest.setMaxGroundTime(maxGroundTime);
+        filterRequest.setMinGroundTime(minGroundTime);
+        filterRequest.setMaxAirDuration(maxAirDuration);
+        filterRequest.setMinAirDuration(minAirDuration);
+        filterRequest.setMinFlightDuration(minFlightDuration);
+        filterRequest.setMaxFlightDuration(maxFlightDuration);
+        filterRequest.setMinStops(minStops);
+        filterRequest.setMaxStops(maxStops);
+
+        List<Flight> result = flightFilterService.applyFilter(FlightStore.of(flights), filterRequest);
+
+        assertEquals(expectedSize, result.size());
+    }
+
     static Stream<Arguments> filterTestData() {
         return Stream.of(
                 Arguments.of(createUniversalTestFlights(1), LocalDateTime.now(), null, null, null, null, null, null, null, null, null, 0, 0, 1),
@@ -153,6 +205,261 @@ class FlightFilterServiceImplTest {
     }
 
 
+    @Test
+    @DisplayName("Проверка параллельной фильтрации с сохранением порядка")
+    void applyFilter_ShouldKeepOrderInParallelMode() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 3 * FlightFilterServiceImpl.CHUNK_SIZE + 17; i++) {
+            flights.addAll(createUniversalTestFlights(i % 5 + 1));
+        }
+        filterRequest.setMaxGroundTime(Duration.ofHours(1));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        FlightFilterService parallelService = new FlightFilterServiceImpl(pool, 1);
+
+        try {
+            assertEquals(flightFilterService.applyFilter(flights, filterRequest),
+                    parallelService.applyFilter(flights, filterRequest));
+            assertEquals(flightFilterService.filterMoreThanTwoHoursGroundTime(flights),
+                    parallelService.filterMoreThanTwoHoursGroundTime(flights));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest(name = "{displayName} - {arguments}")
+    @MethodSource("createPageRequests")
+    @DisplayName("Проверка постраничной выдачи по курсору против полной сортировки")
+    void applyFilter_ShouldPageInSortOrder(FlightSortKey sortKey, SortDirection direction) {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(16, 3000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        FlightStore store = FlightStore.of(flights);
+        filterRequest.setMaxStops(0);
+        filterRequest.setMaxAirDuration(Duration.ofHours(2));
+        filterRequest.setAfterDeparture(LocalDateTime.of(2024, 3, 2, 0, 0));
+
+        List<Integer> matches = new ArrayList<>();
+        List<Flight> filtered = flightFilterService.applyFilter(flights, filterRequest);
+        for (int i = 0; i < flights.size(); i++) {
+            if (filtered.contains(flights.get(i))) {
+                matches.add(i);
+            }
+        }
+        Comparator<Integer> order = Comparator.<Integer>comparingLong(i -> sortKey.key(flights.get(i).getStats()))
+                .thenComparingInt(i -> sortKey.nano(flights.get(i).getStats()))
+                .thenComparingInt(i -> i);
+        matches.sort(direction == SortDirection.DESCENDING ? order.reversed() : order);
+        List<String> expected = matches.stream().skip(5).map(i -> flights.get(i).toString()).toList();
+
+        List<String> listPages = new ArrayList<>();
+        List<String> storePages = new ArrayList<>();
+        FlightPageRequest first = FlightPageRequest.of(sortKey, direction, 50).withOffset(5);
+        for (FlightPageRequest page = first; page != null; ) {
+            FlightPage result = flightFilterService.applyFilter(flights, filterRequest, page);
+            result.flights().forEach(flight -> listPages.add(flight.toString()));
+            page = page.next(result);
+        }
+        for (FlightPageRequest page = first; page != null; ) {
+            FlightPage result = flightFilterService.applyFilter(store, filterRequest, page);
+            result.flights().forEach(flight -> storePages.add(flight.toString()));
+            page = page.next(result);
+        }
+
+        assertTrue(expected.size() > 100);
+        assertEquals(expected, listPages);
+        assertEquals(expected, storePages);
+    }
+
+    private static Stream<Arguments> createPageRequests() {
+        return Stream.of(FlightSortKey.values()).flatMap(sortKey -> Stream.of(SortDirection.values())
+                .map(direction -> Arguments.of(sortKey, direction)));
+    }
+
+    @Test
+    @DisplayName("Проверка агрегатов без построения списка результатов")
+    void aggregate_ShouldMatchFilteredFlights() {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(17, 20_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setBeforeArrival(LocalDateTime.of(2024, 3, 10, 0, 0));
+        List<HistogramSpec> histograms = List.of(new HistogramSpec(FlightMeasure.GROUND_MINUTES, 60, 12),
+                new HistogramSpec(FlightMeasure.STOPS, 1, 4));
+
+        List<Flight> matches = flightFilterService.applyFilter(flights, filterRequest);
+        long[] groundBuckets = new long[12];
+        matches.forEach(flight -> groundBuckets[histograms.get(0).bucket(flight.getStats().groundMinutes())]++);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        FlightFilterService parallelService = new FlightFilterServiceImpl(pool, 1);
+
+        try {
+            FlightAggregates aggregates = flightFilterService.aggregate(flights, filterRequest, histograms);
+
+            assertEquals(matches.size(), aggregates.count());
+            assertEquals(matches.stream().mapToLong(flight -> flight.getStats().groundMinutes()).min().orElseThrow(),
+                    aggregates.groundMinutes().min());
+            assertEquals(matches.stream().mapToLong(flight -> flight.getStats().airMinutes()).max().orElseThrow(),
+                    aggregates.airMinutes().max());
+            assertEquals(matches.stream().mapToLong(flight -> flight.getStats().flightMinutes()).average().orElseThrow(),
+                    aggregates.flightMinutes().average(), 1e-9);
+            assertEquals(LongStream.of(groundBuckets).boxed().toList(), aggregates.histograms().get(0).counts());
+            assertEquals(matches.size(), aggregates.histograms().get(1).counts().stream().mapToLong(Long::longValue).sum());
+            assertEquals(aggregates, parallelService.aggregate(flights, filterRequest, histograms));
+            assertEquals(aggregates, flightFilterService.aggregate(FlightStore.of(flights), filterRequest, histograms));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка пакетной фильтрации за один проход по перелётам")
+    void applyFilters_ShouldMatchSingleRequests() {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(18, 20_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        FlightFilterRequest byGround = new FlightFilterRequest();
+        byGround.setMaxGroundTime(Duration.ofMinutes(90));
+        FlightFilterRequest byStops = new FlightFilterRequest();
+        byStops.setMaxStops(1);
+        byStops.setAfterDeparture(LocalDateTime.of(2024, 3, 5, 0, 0));
+        List<FlightFilterRequest> requests = List.of(byGround, byStops, new FlightFilterRequest());
+        List<List<Flight>> expected = requests.stream()
+                .map(request -> flightFilterService.applyFilter(flights, request))
+                .toList();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        FlightFilterService parallelService = new FlightFilterServiceImpl(pool, 1);
+
+        try {
+            assertEquals(expected, flightFilterService.applyFilters(flights, requests));
+            assertEquals(expected, parallelService.applyFilters(flights, requests));
+            assertEquals(List.of(), flightFilterService.applyFilters(flights, List.of()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка профилирования запроса по каждому фильтру")
+    void profile_ShouldExplainEveryPredicate() {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(19, 5_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setMaxStops(1);
+
+        FilterProfile profile = flightFilterService.profile(flights, filterRequest);
+
+        assertEquals(flightFilterService.applyFilter(flights, filterRequest), profile.flights());
+        assertEquals(flights.size(), profile.flightsScanned());
+        assertEquals(2, profile.predicates().size());
+        FilterProfile.PredicateProfile first = profile.predicates().get(0);
+        FilterProfile.PredicateProfile second = profile.predicates().get(1);
+        assertEquals(first.evaluations(), first.passed() + first.rejected());
+        assertEquals(flights.size() - profile.flights().size(), first.rejected() + second.rejected());
+        assertTrue(second.evaluations() < first.evaluations());
+        assertTrue(first.latencyP99Nanos() >= first.latencyP50Nanos());
+        assertTrue(profile.flightsPerSecond() > 0);
+
+        FlightFilterRequest byGround = new FlightFilterRequest();
+        byGround.setMaxGroundTime(Duration.ofMinutes(90));
+        FlightFilterRequest byStops = new FlightFilterRequest();
+        byStops.setMaxStops(1);
+        for (FlightFilterRequest single : List.of(byGround, byStops)) {
+            FilterProfile singleProfile = flightFilterService.profile(flights, single);
+            FilterProfile.PredicateProfile only = singleProfile.predicates().get(0);
+            assertEquals(flights.size(), only.evaluations());
+            assertEquals(singleProfile.flights().size(), only.passed());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка ленивой фильтрации бесконечного потока")
+    void applyFilter_ShouldFilterUnboundedStreamLazily() {
+        filterRequest.setMaxStops(2);
+        Stream<Flight> feed = Stream.iterate(0, i -> i + 1)
+                .map(i -> createUniversalTestFlights(i % 5 + 1).get(0));
+
+        List<Flight> result = flightFilterService.applyFilter(feed, filterRequest).limit(3).toList();
+
+        assertEquals(3, result.size());
+        result.forEach(flight -> assertEquals(3, flight.getStats().stops()));
+    }
+
+    @Test
+    @DisplayName("Проверка фильтрации потока, распараллеленного после применения фильтра")
+    void applyFilter_ShouldFilterStreamMadeParallelDownstream() {
+        List<Flight> flights = FlightBuilder.createFlights(ScheduleConfig.builder(20, 50_000)
+                .start(LocalDateTime.of(2024, 3, 1, 0, 0)).build());
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(90));
+        filterRequest.setMaxStops(1);
+        filterRequest.setAfterDeparture(LocalDateTime.of(2024, 3, 3, 0, 0));
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            List<Flight> result = pool.submit(() -> flightFilterService.applyFilter(flights.stream(), filterRequest)
+                    .parallel()
+                    .toList()).join();
+            assertEquals(flightFilterService.applyFilter(flights, filterRequest), result);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка фильтрации итератора")
+    void applyFilter_ShouldFilterIterator() {
+        filterRequest.setMaxGroundTime(Duration.ofHours(1));
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            flights.addAll(createUniversalTestFlights(i));
+        }
+
+        Iterator<Flight> iterator = flightFilterService.applyFilter(flights.iterator(), filterRequest);
+        List<Flight> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+
+        assertEquals(flightFilterService.applyFilter(flights, filterRequest), result);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @DisplayName("Проверка фильтрации издателя с обратным давлением")
+    void applyFilter_ShouldFilterPublisherWithBackpressure() throws InterruptedException {
+        filterRequest.setMaxStops(2);
+        List<Flight> received = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        try (SubmissionPublisher<Flight> feed = new SubmissionPublisher<>()) {
+            flightFilterService.applyFilter(feed, filterRequest).subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(Flight item) {
+                    received.add(item);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    completed.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+            for (int i = 0; i < 100; i++) {
+                feed.submit(createUniversalTestFlights(i % 5 + 1).get(0));
+            }
+        }
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(20, received.size());
+    }
+
     private static List<Flight> createFlightsWithArrivalAfterDeparture() {
         Flight flight1 = createFlight(LocalDateTime.now(), LocalDateTime.now().plusHours(2));
         Flight flight2 = createFlight(LocalDateTime.now(), LocalDateTime.now().plusHours(3));
@@ -188,10 +495,8 @@ class FlightFilterServiceImplTest {
     }
 
     private static Flight createFlight(LocalDateTime departure, LocalDateTime arrival) {
-        Flight flight = mock(Flight.class);
         Segment segment = createSegment(departure, arrival);
-        when(flight.getSegments()).thenReturn(List.of(segment));
-        return flight;
+        return new Flight(List.of(segment));
     }
 
     private static List<Flight> createFlightsWithGroundTimeLessThanTwoHours() {
@@ -213,11 +518,9 @@ class FlightFilterServiceImplTest {
 
     private static Flight createFlightWithGroundTime(long groundTime) {
         LocalDateTime currentTime = LocalDateTime.now();
-        Flight flight = mock(Flight.class);
         Segment segment1 = createSegment(currentTime, currentTime.plusHours(1));
         Segment segment2 = createSegment(currentTime.plusHours(groundTime), currentTime.plusHours(3));
-        when(flight.getSegments()).thenReturn(List.of(segment1, segment2));
-        return flight;
+        return new Flight(List.of(segment1, segment2));
     }
 
     private static Segment createSegment(LocalDateTime departure, LocalDateTime arrival) {
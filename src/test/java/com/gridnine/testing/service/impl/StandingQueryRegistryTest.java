@@ -0,0 +1,192 @@
+package com.gridnine.testing.service.impl;
+
+import com.gridnine.testing.dto.FlightDelta;
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StandingQueryRegistryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private StandingQueryRegistry registry;
+    private List<FlightDelta> deltas;
+    private StandingQueryRegistry.StandingQuery query;
+
+    @BeforeEach
+    public void setup() {
+        registry = new StandingQueryRegistry(new FlightFilterServiceImpl());
+        registry.put(1, createFlight(3));
+        registry.put(2, createFlight(1));
+        deltas = new ArrayList<>();
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofHours(2));
+        query = registry.register(filterRequest, deltas::add);
+    }
+
+    @Test
+    @DisplayName("Проверка начального результата постоянного запроса")
+    void register_ShouldDeliverCurrentMatches() {
+        assertEquals(1, deltas.size());
+        assertEquals(Set.of(1L), deltas.get(0).added().keySet());
+        assertEquals(Set.of(1L), query.matchingIds());
+    }
+
+    @Test
+    @DisplayName("Проверка дельт при добавлении, изменении и удалении перелётов")
+    void apply_ShouldDeliverDeltasForChangedFlightsOnly() {
+        Flight updated = createFlight(4);
+        Flight added = createFlight(5);
+        registry.apply(Map.of(1L, updated, 2L, added, 3L, createFlight(1)), List.of());
+        FlightDelta delta = deltas.get(1);
+
+        assertEquals(Map.of(2L, added), delta.added());
+        assertEquals(Map.of(1L, updated), delta.updated());
+        assertTrue(delta.removed().isEmpty());
+
+        registry.remove(2);
+        registry.put(1, createFlight(1));
+
+        assertEquals(Set.of(2L), deltas.get(2).removed());
+        assertEquals(Set.of(1L), deltas.get(3).removed());
+        assertTrue(query.matchingIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка отсутствия дельт без изменения результата и после отписки")
+    void apply_ShouldSkipUnaffectedAndClosedQueries() {
+        registry.put(4, createFlight(1));
+        registry.remove(42);
+        assertEquals(1, deltas.size());
+
+        query.close();
+        registry.put(5, createFlight(5));
+
+        assertEquals(1, deltas.size());
+        assertEquals(4, registry.size());
+    }
+
+    @Test
+    @DisplayName("Проверка доставки дельт при ошибке в обработчике другого запроса")
+    void apply_ShouldDeliverToOtherQueriesWhenListenerThrows() {
+        StandingQueryRegistry isolated = new StandingQueryRegistry(new FlightFilterServiceImpl());
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofHours(2));
+        List<FlightDelta> failed = new ArrayList<>();
+        List<FlightDelta> delivered = new ArrayList<>();
+        isolated.register(filterRequest, delta -> {
+            failed.add(delta);
+            throw new IllegalStateException("listener failure");
+        });
+        isolated.register(filterRequest, delivered::add);
+
+        isolated.put(1, createFlight(3));
+        isolated.put(2, createFlight(4));
+
+        assertEquals(2, isolated.size());
+        assertEquals(2, failed.size());
+        assertEquals(2, delivered.size());
+        assertEquals(Set.of(1L), delivered.get(0).added().keySet());
+        assertEquals(Set.of(2L), delivered.get(1).added().keySet());
+    }
+
+    @Test
+    @DisplayName("Проверка порядка дельт при конкурентных изменениях и подписке")
+    void apply_ShouldDeliverDeltasInCommitOrderUnderConcurrency() throws Exception {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofHours(2));
+        MirroringListener first = new MirroringListener();
+        MirroringListener second = new MirroringListener();
+        StandingQueryRegistry.StandingQuery firstQuery = registry.register(filterRequest, first);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<StandingQueryRegistry.StandingQuery>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    StandingQueryRegistry.StandingQuery registered = null;
+                    for (int i = 0; i < 2_000; i++) {
+                        long id = random.nextInt(64);
+                        if (seed == 0 && i == 1_000) {
+                            registered = registry.register(filterRequest, second);
+                        } else if (random.nextInt(4) == 0) {
+                            registry.remove(id);
+                        } else {
+                            registry.put(id, createFlight(1 + random.nextInt(4)));
+                        }
+                    }
+                    return registered;
+                }));
+            }
+            StandingQueryRegistry.StandingQuery secondQuery = null;
+            for (Future<StandingQueryRegistry.StandingQuery> future : futures) {
+                StandingQueryRegistry.StandingQuery registered = future.get(30, TimeUnit.SECONDS);
+                if (registered != null) {
+                    secondQuery = registered;
+                }
+            }
+
+            assertEquals(0, first.violations);
+            assertEquals(0, second.violations);
+            assertEquals(firstQuery.matchingIds(), first.view.keySet());
+            assertEquals(secondQuery.matchingIds(), second.view.keySet());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Applies deltas to a local view and counts deltas that do not fit the view, i.e. arrived out of order.
+     */
+    private static final class MirroringListener implements Consumer<FlightDelta> {
+
+        private final Map<Long, Flight> view = new HashMap<>();
+        private int violations;
+
+        @Override
+        public void accept(FlightDelta delta) {
+            delta.added().forEach((id, flight) -> {
+                if (view.put(id, flight) != null) {
+                    violations++;
+                }
+            });
+            delta.updated().forEach((id, flight) -> {
+                if (view.put(id, flight) == null) {
+                    violations++;
+                }
+            });
+            delta.removed().forEach(id -> {
+                if (view.remove(id) == null) {
+                    violations++;
+                }
+            });
+        }
+    }
+
+    private static Flight createFlight(int groundHours) {
+        return new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                new Segment(BASE.plusHours(1 + groundHours), BASE.plusHours(2 + groundHours))));
+    }
+}
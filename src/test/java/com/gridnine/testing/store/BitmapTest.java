@@ -0,0 +1,76 @@
+package com.gridnine.testing.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitmapTest {
+
+    @Test
+    @DisplayName("Проверка пересечения и объединения разреженных и плотных блоков")
+    void andOr_ShouldMatchBitSet() {
+        Random random = new Random(7);
+        BitSet sparse = randomBits(random, 50_000, 0.01);
+        BitSet dense = randomBits(random, 50_000, 0.5);
+        Bitmap sparseBitmap = toBitmap(sparse);
+        Bitmap denseBitmap = toBitmap(dense);
+
+        BitSet and = (BitSet) sparse.clone();
+        and.and(dense);
+        BitSet or = (BitSet) sparse.clone();
+        or.or(dense);
+
+        assertArrayEquals(and.stream().toArray(), sparseBitmap.and(denseBitmap).toArray());
+        assertArrayEquals(and.stream().toArray(), denseBitmap.and(sparseBitmap).toArray());
+        assertArrayEquals(or.stream().toArray(), sparseBitmap.or(denseBitmap).toArray());
+        assertArrayEquals(sparse.stream().toArray(), sparseBitmap.and(sparseBitmap).toArray());
+        assertEquals(dense.cardinality(), denseBitmap.cardinality());
+    }
+
+    @Test
+    @DisplayName("Проверка объединения нескольких битовых карт и поиска значения")
+    void orContains_ShouldFindValues() {
+        Bitmap first = Bitmap.builder().add(1).add(5000).build();
+        Bitmap second = Bitmap.builder().add(2).add(70_000).build();
+
+        Bitmap union = Bitmap.or(List.of(first, second, Bitmap.empty()));
+
+        assertArrayEquals(new int[]{1, 2, 5000, 70_000}, union.toArray());
+        assertTrue(union.contains(70_000));
+        assertFalse(union.contains(3));
+        assertFalse(union.contains(1_000_000));
+    }
+
+    @Test
+    @DisplayName("Проверка запрета добавления значений не по возрастанию")
+    void builder_ShouldRejectUnorderedValues() {
+        Bitmap.Builder builder = Bitmap.builder().add(10);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5));
+    }
+
+    private static BitSet randomBits(Random random, int size, double density) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < density) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static Bitmap toBitmap(BitSet bits) {
+        Bitmap.Builder builder = Bitmap.builder();
+        bits.stream().forEach(builder::add);
+        return builder.build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    @DisplayName("Проверка неизменности снимка после записи")
+    void snapshot_ShouldStayUnchangedAfterWrites() {
+        FlightRepository repository = new FlightRepository(4);
+        Flight first = createFlight(1);
+        Flight second = createFlight(2);
+        repository.apply(Map.of(1L, first, 2L, second, 3L, createFlight(3)), List.of());
+        FlightRepository.Snapshot before = repository.snapshot();
+
+        FlightRepository.Snapshot after = repository.apply(Map.of(1L, second), List.of(3L));
+
+        assertEquals(1, before.version());
+        assertEquals(3, before.size());
+        assertSame(first, before.get(1));
+        assertEquals(2, after.version());
+        assertEquals(List.of(second, second), List.of(after.get(1), after.get(2)));
+        assertNull(after.get(3));
+        assertEquals(2, after.flights().size());
+        assertTrue(after.flights().containsAll(List.of(second)));
+    }
+
+    @Test
+    @DisplayName("Проверка согласованных снимков при конкурентной записи")
+    void snapshot_ShouldNeverExposeTornBatches() throws Exception {
+        FlightRepository repository = new FlightRepository(16);
+        int writers = 3;
+        int pairs = 200;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int writer = 0; writer < writers; writer++) {
+            long offset = writer * 10_000L;
+            tasks.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(offset);
+                for (int i = 0; i < 2_000; i++) {
+                    long pair = offset + 2L * random.nextInt(pairs);
+                    if (random.nextInt(4) == 0) {
+                        repository.apply(Map.of(), List.of(pair, pair + 1));
+                    } else {
+                        Flight flight = createFlight(i % 24);
+                        repository.apply(Map.of(pair, flight, pair + 1, flight), List.of());
+                    }
+                }
+            }));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int reader = 0; reader < 2; reader++) {
+            readers.add(executor.submit(() -> {
+                long lastVersion = -1;
+                while (running.get()) {
+                    FlightRepository.Snapshot snapshot = repository.snapshot();
+                    assertTrue(snapshot.version() >= lastVersion);
+                    lastVersion = snapshot.version();
+                    assertEquals(0, snapshot.size() % 2);
+                    assertEquals(snapshot.size(), snapshot.flights().stream().filter(flight -> flight != null).count());
+                    for (int writer = 0; writer < writers; writer++) {
+                        for (int pair = 0; pair < pairs; pair++) {
+                            long id = writer * 10_000L + 2L * pair;
+                            assertSame(snapshot.get(id), snapshot.get(id + 1));
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(writers * 2_000L, repository.snapshot().version());
+    }
+
+    private static Flight createFlight(int hours) {
+        return new Flight(List.of(new Segment(BASE.plusHours(hours), BASE.plusHours(hours + 2))));
+    }
+}
@@ -0,0 +1,81 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlightStoreFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Проверка записи и отображения файла хранилища в память")
+    void map_ShouldReadWrittenStore() throws IOException {
+        FlightStore.Builder builder = FlightStore.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.addSegment(i, i + 60);
+            if (i % 3 == 0) {
+                builder.addSegment(i + 200, i + 260);
+            }
+            builder.endFlight();
+        }
+        FlightStore store = builder.build();
+        Path path = directory.resolve("flights.bin");
+
+        FlightStoreFile.write(store, path);
+        FlightStore mapped = FlightStoreFile.map(path);
+
+        assertEquals(store.size(), mapped.size());
+        assertEquals(store.segmentCount(), mapped.segmentCount());
+        assertEquals(store.arrival(store.segmentCount() - 1), mapped.arrival(mapped.segmentCount() - 1));
+        assertEquals(store.segmentStart(9_999), mapped.segmentStart(9_999));
+
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setMaxGroundTime(Duration.ofMinutes(100));
+        FlightStoreQuery query = FlightStoreQuery.of(filterRequest);
+        assertArrayEquals(store.select(query), mapped.select(query));
+        assertEquals(3_334, mapped.select(query).length);
+    }
+
+    @Test
+    @DisplayName("Проверка отказа при чтении постороннего файла")
+    void map_ShouldRejectForeignFile() throws IOException {
+        Path path = directory.resolve("foreign.bin");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> FlightStoreFile.map(path));
+    }
+
+    @Test
+    @DisplayName("Проверка отказа при повреждённых смещениях сегментов")
+    void map_ShouldRejectCorruptOffsets() throws IOException {
+        FlightStore.Builder builder = FlightStore.builder();
+        for (int i = 0; i < 4; i++) {
+            builder.addSegment(i, i + 60).addSegment(i + 100, i + 160).endFlight();
+        }
+        Path path = directory.resolve("corrupt.bin");
+        FlightStoreFile.write(builder.build(), path);
+        byte[] valid = Files.readAllBytes(path);
+
+        for (int[] corruption : new int[][]{{0, 1}, {2, 1}, {4, 7}}) {
+            byte[] bytes = valid.clone();
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(16 + corruption[0] * Integer.BYTES, corruption[1]);
+            Files.write(path, bytes);
+
+            assertThrows(IOException.class, () -> FlightStoreFile.map(path));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import com.gridnine.testing.util.EpochMinutes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightStoreTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    @DisplayName("Проверка упаковки сегментов в колонки")
+    void of_ShouldPackSegmentsWithOffsets() {
+        FlightStore store = FlightStore.of(List.of(
+                new Flight(List.of(new Segment(BASE, BASE.plusHours(2)))),
+                new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                        new Segment(BASE.plusHours(2), BASE.plusHours(3))))));
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.segmentCount());
+        assertEquals(1, store.segmentStart(1));
+        assertEquals(3, store.segmentEnd(1));
+        assertEquals(120, store.arrival(0) - store.departure(0));
+        assertEquals(60, store.departure(2) - store.arrival(1));
+    }
+
+    @Test
+    @DisplayName("Проверка восстановления перелёта из колонок")
+    void getFlight_ShouldRestoreSegments() {
+        FlightStore store = FlightStore.of(List.of(
+                new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                        new Segment(BASE.plusHours(2), BASE.plusHours(3))))));
+
+        Flight flight = store.getFlight(0);
+
+        assertEquals(2, flight.getSegments().size());
+        assertEquals(BASE, flight.getSegments().get(0).getDepartureDate());
+        assertEquals(BASE.plusHours(3), flight.getSegments().get(1).getArrivalDate());
+    }
+
+    @Test
+    @DisplayName("Проверка построения хранилища с ростом буферов")
+    void builder_ShouldGrowBuffers() {
+        FlightStore.Builder builder = FlightStore.builder();
+        for (int i = 0; i < 100; i++) {
+            builder.addSegment(i, i + 10).addSegment(i + 20, i + 30).endFlight();
+        }
+
+        FlightStore store = builder.build();
+
+        assertEquals(100, store.size());
+        assertEquals(200, store.segmentCount());
+        assertEquals(99, store.departure(store.segmentStart(99)));
+    }
+
+    @Test
+    @DisplayName("Проверка выборки по временным индексам против полного перебора")
+    void select_ShouldMatchFullScan() {
+        FlightStore store = createRandomStore(500);
+
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        filterRequest.setAfterDeparture(EpochMinutes.toLocalDateTime(2_000));
+        filterRequest.setBeforeDeparture(EpochMinutes.toLocalDateTime(4_000).plusSeconds(30));
+        filterRequest.setBeforeArrival(EpochMinutes.toLocalDateTime(5_000));
+        FlightStoreQuery query = FlightStoreQuery.of(filterRequest);
+
+        int[] expected = IntStream.range(0, store.size()).filter(flight -> query.test(store, flight)).toArray();
+
+        assertArrayEquals(expected, store.select(query));
+        assertTrue(expected.length > 0);
+    }
+
+    @Test
+    @DisplayName("Проверка выборки по битовым индексам против полного перебора")
+    void select_ShouldMatchFullScanWithBitmapCriteria() {
+        FlightStore store = createRandomStore(20_000);
+
+        FlightFilterRequest groundOnly = new FlightFilterRequest();
+        groundOnly.setMaxGroundTime(Duration.ofMinutes(95));
+        groundOnly.setMinFlightDuration(Duration.ofHours(9));
+        assertSelectMatchesFullScan(store, groundOnly);
+
+        FlightFilterRequest stops = new FlightFilterRequest();
+        stops.setMaxStops(1);
+        stops.setMinAirDuration(Duration.ofMinutes(400));
+        assertSelectMatchesFullScan(store, stops);
+
+        FlightFilterRequest mixed = new FlightFilterRequest();
+        mixed.setMinStops(2);
+        mixed.setBeforeArrival(EpochMinutes.toLocalDateTime(3_000));
+        assertSelectMatchesFullScan(store, mixed);
+    }
+
+    @Test
+    @DisplayName("Проверка сканирования колонок скалярным и векторным ядром против полного перебора")
+    void scan_ShouldMatchFullScanForEveryKernel() {
+        FlightStore store = createRandomStore(20_001);
+        List<ColumnKernel> kernels = ColumnKernels.isVectorAvailable()
+                ? List.of(ColumnKernels.scalar(), ColumnKernels.vector())
+                : List.of(ColumnKernels.scalar());
+
+        FlightFilterRequest all = new FlightFilterRequest();
+        FlightFilterRequest window = new FlightFilterRequest();
+        window.setAfterDeparture(EpochMinutes.toLocalDateTime(2_000));
+        window.setBeforeDeparture(EpochMinutes.toLocalDateTime(4_000).plusSeconds(30));
+        window.setAfterArrival(EpochMinutes.toLocalDateTime(2_500));
+        FlightFilterRequest durations = new FlightFilterRequest();
+        durations.setMaxGroundTime(Duration.ofMinutes(95));
+        durations.setMaxAirDuration(Duration.ofMinutes(200));
+        durations.setMinStops(3);
+
+        for (ColumnKernel kernel : kernels) {
+            for (FlightFilterRequest filterRequest : List.of(all, window, durations)) {
+                FlightStoreQuery query = FlightStoreQuery.of(filterRequest);
+                int[] expected = IntStream.range(0, store.size()).filter(flight -> query.test(store, flight)).toArray();
+
+                assertArrayEquals(expected, store.scan(query, kernel), kernel.name());
+                assertTrue(expected.length > 0);
+            }
+        }
+    }
+
+    private static void assertSelectMatchesFullScan(FlightStore store, FlightFilterRequest filterRequest) {
+        FlightStoreQuery query = FlightStoreQuery.of(filterRequest);
+        int[] expected = IntStream.range(0, store.size()).filter(flight -> query.test(store, flight)).toArray();
+
+        assertArrayEquals(expected, store.select(query));
+        assertTrue(expected.length > 0);
+    }
+
+    private static FlightStore createRandomStore(int size) {
+        Random random = new Random(42);
+        FlightStore.Builder builder = FlightStore.builder();
+        for (int i = 0; i < size; i++) {
+            long departure = random.nextInt(10_000);
+            int segments = random.nextInt(4);
+            for (int j = 0; j < segments; j++) {
+                long arrival = departure + random.nextInt(300) - 30;
+                builder.addSegment(departure, arrival);
+                departure = arrival + random.nextInt(200);
+            }
+            builder.endFlight();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.gridnine.testing.store;
+
+import com.gridnine.testing.factory.FlightBuilder;
+import com.gridnine.testing.factory.ScheduleConfig;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.service.impl.FlightFilterServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedFlightStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Test
+    @DisplayName("Проверка выборки вылетевших и актуальных перелётов по партициям")
+    void departed_ShouldMatchFilterFromCurrentTime() {
+        Clock clock = Clock.fixed(START.plusDays(2).plusMinutes(7).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        List<Flight> flights = new ArrayList<>(FlightBuilder.createFlights(ScheduleConfig.builder(18, 5000)
+                .start(START).days(5).build()));
+        flights.add(new Flight(List.of()));
+        PartitionedFlightStore store = new PartitionedFlightStore(Duration.ofHours(6), clock);
+        store.addAll(flights);
+
+        List<Flight> departed = store.departed();
+        List<Flight> live = store.live();
+
+        FlightFilterServiceImpl flightFilterService = new FlightFilterServiceImpl(null, Integer.MAX_VALUE, clock);
+        assertEquals(sorted(flightFilterService.filterFromCurrentTime(flights)), sorted(departed));
+        assertEquals(sorted(departed), sorted(flightFilterService.filterFromCurrentTime(store)));
+        assertEquals(flights.size(), departed.size() + live.size());
+        assertTrue(store.partitionCount() > 10);
+        assertTrue(departed.size() > 100 && live.size() > 100);
+    }
+
+    @Test
+    @DisplayName("Проверка удаления полностью вылетевших партиций")
+    void retireDeparted_ShouldDropDepartedPartitions() {
+        Clock clock = Clock.fixed(START.plusDays(3).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        PartitionedFlightStore store = new PartitionedFlightStore(Duration.ofDays(1), clock);
+        store.addAll(FlightBuilder.createFlights(ScheduleConfig.builder(19, 2000)
+                .start(START).days(6).build()));
+        int partitions = store.partitionCount();
+        List<Flight> live = store.live();
+
+        int retired = store.retireDeparted();
+
+        assertTrue(retired > 0);
+        assertTrue(store.partitionCount() < partitions);
+        assertEquals(store.size(), store.departed().size() + store.live().size());
+        assertEquals(sorted(live), sorted(store.live()));
+        assertEquals(retired, store.retiredCount());
+    }
+
+    @Test
+    @DisplayName("Проверка выборки вылетевших перелётов после удаления партиций")
+    void departed_ShouldCoverOnlyFlightsNotRetired() {
+        Clock clock = Clock.fixed(START.plusDays(3).plusHours(5).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        List<Flight> flights = new ArrayList<>(FlightBuilder.createFlights(ScheduleConfig.builder(20, 2000)
+                .start(START).days(6).build()));
+        flights.add(new Flight(List.of()));
+        PartitionedFlightStore store = new PartitionedFlightStore(Duration.ofDays(1), clock);
+        store.addAll(flights);
+        List<String> expected = sorted(new FlightFilterServiceImpl(null, Integer.MAX_VALUE, clock)
+                .filterFromCurrentTime(flights));
+
+        store.retireDeparted();
+        List<String> departed = sorted(store.departed());
+
+        assertTrue(store.retiredCount() > 0 && !departed.isEmpty());
+        assertEquals(expected.size(), departed.size() + store.retiredCount());
+        assertTrue(expected.containsAll(departed));
+        assertEquals(flights.size(), store.size() + store.retiredCount());
+    }
+
+    private static List<String> sorted(List<Flight> flights) {
+        return flights.stream().map(Flight::toString).sorted().toList();
+    }
+}
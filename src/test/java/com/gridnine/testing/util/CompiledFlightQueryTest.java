@@ -0,0 +1,123 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.dto.FlightFilterRequest;
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledFlightQueryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    @DisplayName("Проверка совпадения скомпилированного запроса с фильтрацией по сегментам")
+    void test_ShouldMatchSegmentSemantics() {
+        SplittableRandom random = new SplittableRandom(14);
+        List<Flight> flights = new ArrayList<>();
+        flights.add(new Flight(List.of()));
+        for (int i = 0; i < 2000; i++) {
+            flights.add(createFlight(random));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            FlightFilterRequest filterRequest = createRequest(random);
+            CompiledFlightQuery query = CompiledFlightQuery.compile(filterRequest);
+            Predicate<Flight> expected = reference(filterRequest);
+            Predicate<Flight> split = query.predicates().stream()
+                    .map(FlightPredicate::predicate)
+                    .reduce(flight -> true, Predicate::and);
+
+            for (Flight flight : flights) {
+                assertEquals(expected.test(flight), query.test(flight), filterRequest + " " + flight);
+                assertEquals(expected.test(flight), split.test(flight));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка независимости скомпилированного запроса от исходного запроса")
+    void compile_ShouldFreezeRequest() {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        assertTrue(CompiledFlightQuery.compile(filterRequest).matchesAll());
+
+        filterRequest.setMaxGroundTime(Duration.ofHours(2));
+        CompiledFlightQuery query = CompiledFlightQuery.compile(filterRequest);
+        Flight flight = new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                new Segment(BASE.plusHours(4), BASE.plusHours(5))));
+        filterRequest.setMaxGroundTime(Duration.ofHours(5));
+
+        assertFalse(query.matchesAll());
+        assertTrue(query.test(flight));
+    }
+
+    private static Flight createFlight(SplittableRandom random) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime departure = BASE.plusSeconds(random.nextInt(-3600, 3600)).plusNanos(random.nextInt(3));
+        int count = random.nextInt(1, 4);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime arrival = departure.plusSeconds(random.nextInt(-600, 7200));
+            segments.add(new Segment(departure, arrival));
+            departure = arrival.plusSeconds(random.nextInt(-600, 14400));
+        }
+        return new Flight(segments);
+    }
+
+    private static FlightFilterRequest createRequest(SplittableRandom random) {
+        FlightFilterRequest filterRequest = new FlightFilterRequest();
+        if (random.nextBoolean()) {
+            filterRequest.setBeforeDeparture(BASE.plusSeconds(random.nextInt(-3600, 3600)).plusNanos(random.nextInt(3)));
+        }
+        if (random.nextBoolean()) {
+            filterRequest.setAfterDeparture(BASE.plusSeconds(random.nextInt(-3600, 3600)));
+        }
+        if (random.nextBoolean()) {
+            filterRequest.setBeforeArrival(BASE.plusSeconds(random.nextInt(0, 40000)));
+        }
+        if (random.nextBoolean()) {
+            filterRequest.setAfterArrival(BASE.plusSeconds(random.nextInt(0, 40000)).plusNanos(1));
+        }
+        if (random.nextInt(3) == 0) {
+            filterRequest.setMaxGroundTime(Duration.ofMinutes(random.nextInt(0, 300)));
+        }
+        if (random.nextInt(3) == 0) {
+            filterRequest.setMinAirDuration(Duration.ofMinutes(random.nextInt(0, 300)));
+        }
+        if (random.nextInt(3) == 0) {
+            filterRequest.setMaxFlightDuration(Duration.ofMinutes(random.nextInt(0, 600)));
+        }
+        if (random.nextInt(3) == 0) {
+            filterRequest.setMaxStops(random.nextInt(0, 3));
+        }
+        return filterRequest;
+    }
+
+    private static Predicate<Flight> reference(FlightFilterRequest filterRequest) {
+        return flight -> (filterRequest.getBeforeDeparture() == null || flight.getSegments().stream()
+                .anyMatch(segment -> segment.getDepartureDate().isBefore(filterRequest.getBeforeDeparture())))
+                && (filterRequest.getAfterDeparture() == null || flight.getSegments().stream()
+                .allMatch(segment -> segment.getDepartureDate().isAfter(filterRequest.getAfterDeparture())))
+                && (filterRequest.getBeforeArrival() == null || flight.getSegments().stream()
+                .allMatch(segment -> segment.getArrivalDate().isBefore(filterRequest.getBeforeArrival())))
+                && (filterRequest.getAfterArrival() == null || flight.getSegments().stream()
+                .anyMatch(segment -> segment.getArrivalDate().isAfter(filterRequest.getAfterArrival())))
+                && (filterRequest.getMaxGroundTime() == null
+                || flight.getStats().groundMinutes() > filterRequest.getMaxGroundTime().toMinutes())
+                && (filterRequest.getMinAirDuration() == null
+                || flight.getStats().airMinutes() < filterRequest.getMinAirDuration().toMinutes())
+                && (filterRequest.getMaxFlightDuration() == null
+                || flight.getStats().flightMinutes() > filterRequest.getMaxFlightDuration().toMinutes())
+                && (filterRequest.getMaxStops() <= 0 || flight.getStats().stops() > filterRequest.getMaxStops());
+    }
+}
@@ -0,0 +1,42 @@
+package com.gridnine.testing.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DateTimeParserTest {
+
+    @DisplayName("Проверка разбора даты и времени в минуты от эпохи")
+    @ParameterizedTest
+    @ValueSource(strings = {"1970-01-01T00:00", "1969-12-31T23:59", "2000-02-29T12:30", "2024-03-01T10:05", "2100-12-31T23:59"})
+    void parseEpochMinutes_ShouldMatchLocalDateTime(String text) {
+        long expected = EpochMinutes.of(LocalDateTime.parse(text));
+
+        assertEquals(expected, DateTimeParser.parseEpochMinutes(text));
+        assertEquals(expected, DateTimeParser.parseEpochMinutes(text.getBytes(StandardCharsets.US_ASCII), 0));
+        assertEquals(LocalDateTime.parse(text), DateTimeParser.parse(text));
+    }
+
+    @DisplayName("Проверка отказа при некорректной дате")
+    @ParameterizedTest
+    @ValueSource(strings = {"2023-02-29T10:00", "2024-13-01T10:00", "2024-03-01T24:00", "2024-03-01 10:00", "2024-03-01T10:0x", "2024-03-01"})
+    void parseEpochMinutes_ShouldRejectInvalidText(String text) {
+        assertThrows(DateTimeParseException.class, () -> DateTimeParser.parseEpochMinutes(text));
+    }
+
+    @Test
+    @DisplayName("Проверка разбора со смещением в буфере")
+    void parseEpochMinutes_ShouldReadAtOffset() {
+        byte[] bytes = "xx2024-03-01T10:05,".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(EpochMinutes.of(LocalDateTime.of(2024, 3, 1, 10, 5)), DateTimeParser.parseEpochMinutes(bytes, 2));
+    }
+}
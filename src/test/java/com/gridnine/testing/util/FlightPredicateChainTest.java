@@ -0,0 +1,85 @@
+package com.gridnine.testing.util;
+
+import com.gridnine.testing.model.Flight;
+import com.gridnine.testing.model.Segment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlightPredicateChainTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    @DisplayName("Проверка выбора селективного предиката первым")
+    void plan_ShouldPutSelectivePredicateFirst() {
+        List<Flight> flights = createFlights(100);
+        FlightPredicate broad = new FlightPredicate("broad", flight -> true);
+        FlightPredicate selective = new FlightPredicate("selective",
+                flight -> flight.getStats().stops() > 0);
+
+        FlightPredicateChain chain = FlightPredicateChain.plan(List.of(broad, selective), flights);
+
+        assertEquals("selective", chain.order().get(0).name());
+        assertEquals(1, flights.stream().filter(chain).count());
+    }
+
+    @Test
+    @DisplayName("Проверка перестроения порядка по наблюдаемой селективности")
+    void test_ShouldAdaptOrderToObservedPassRates() {
+        List<Flight> sample = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sample.add(new Flight(List.of(new Segment(BASE, BASE.plusHours(1)))));
+        }
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            flights.add(new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                    new Segment(BASE.plusHours(2), BASE.plusHours(3)))));
+        }
+        FlightPredicate stops = new FlightPredicate("stops",
+                flight -> flight.getStats().stops() == 0);
+        FlightPredicate air = new FlightPredicate("air",
+                flight -> flight.getStats().airMinutes() > 60);
+
+        FlightPredicateChain chain = FlightPredicateChain.plan(List.of(stops, air), sample);
+        assertEquals("air", chain.order().get(0).name());
+
+        long matches = flights.stream().filter(chain).count();
+
+        assertEquals(0, matches);
+        assertEquals("stops", chain.order().get(0).name());
+    }
+
+    @Test
+    @DisplayName("Проверка равномерной выборки при планировании")
+    void plan_ShouldSampleEvenlyAcrossList() {
+        List<Flight> flights = createFlights(511);
+        List<Integer> sampled = new ArrayList<>();
+        FlightPredicate first = new FlightPredicate("first", flight -> {
+            sampled.add(flights.indexOf(flight));
+            return true;
+        });
+        FlightPredicate second = new FlightPredicate("second", flight -> true);
+
+        FlightPredicateChain.plan(List.of(first, second), flights);
+
+        assertEquals(256, sampled.size());
+        assertEquals(0, sampled.get(0));
+        assertEquals(509, sampled.get(255));
+    }
+
+    private static List<Flight> createFlights(int count) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < count - 1; i++) {
+            flights.add(new Flight(List.of(new Segment(BASE, BASE.plusHours(1)))));
+        }
+        flights.add(new Flight(List.of(new Segment(BASE, BASE.plusHours(1)),
+                new Segment(BASE.plusHours(2), BASE.plusHours(3)))));
+        return flights;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gridnine.testing.store;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel on the incubating Vector API: every comparison covers {@link LongVector#SPECIES_PREFERRED} flights
+ * and its lane mask is folded into bits of the match mask by a blend with per-lane bit constants
+ * and an OR reduction. The last partial word is compared lane by lane.
+ * The comparison operator must be a constant at the call site for C2 to intrinsify it,
+ * hence one loop per operator.
+ * Compiled only by the {@code vector} Maven profile and loaded by {@link ColumnKernels} only when both the class
+ * and the {@code jdk.incubator.vector} module are present.
+ */
+final class VectorColumnKernel implements ColumnKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final LongVector LANE_BITS = laneBits();
+
+    @Override
+    public void greaterThan(long[] column, int size, long threshold, long[] mask) {
+        int step = SPECIES.length();
+        int fullWords = size >>> 6;
+        for (int word = 0; word < fullWords; word++) {
+            long bits = mask[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            long matches = 0;
+            for (int j = 0; j < 64; j += step) {
+                VectorMask<Long> lanes = LongVector.fromArray(SPECIES, column, base + j)
+                        .compare(VectorOperators.GT, threshold);
+                matches |= LongVector.zero(SPECIES).blend(LANE_BITS, lanes).reduceLanes(VectorOperators.OR) << j;
+            }
+            mask[word] = bits & matches;
+        }
+        int base = size & ~63;
+        if (base < size && mask[base >>> 6] != 0) {
+            long matches = 0;
+            for (int j = 0; base + j < size; j++) {
+                matches |= (column[base + j] > threshold ? 1L : 0L) << j;
+            }
+            mask[base >>> 6] &= matches;
+        }
+    }
+
+    @Override
+    public void lessThan(long[] column, int size, long threshold, long[] mask) {
+        int step = SPECIES.length();
+        int fullWords = size >>> 6;
+        for (int word = 0; word < fullWords; word++) {
+            long bits = mask[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            long matches = 0;
+            for (int j = 0; j < 64; j += step) {
+                VectorMask<Long> lanes = LongVector.fromArray(SPECIES, column, base + j)
+                        .compare(VectorOperators.LT, threshold);
+                matches |= LongVector.zero(SPECIES).blend(LANE_BITS, lanes).reduceLanes(VectorOperators.OR) << j;
+            }
+            mask[word] = bits & matches;
+        }
+        int base = size & ~63;
+        if (base < size && mask[base >>> 6] != 0) {
+            long matches = 0;
+            for (int j = 0; base + j < size; j++) {
+                matches |= (column[base + j] < threshold ? 1L : 0L) << j;
+            }
+            mask[base >>> 6] &= matches;
+        }
+    }
+
+    private static LongVector laneBits() {
+        long[] bits = new long[SPECIES.length()];
+        for (int lane = 0; lane < bits.length; lane++) {
+            bits[lane] = 1L << lane;
+        }
+        return LongVector.fromArray(SPECIES, bits, 0);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}